@@ -0,0 +1,164 @@
+package io.buybrain.util;
+
+import io.buybrain.util.function.ThrowingDoubleFunction;
+import io.buybrain.util.function.ThrowingDoubleSupplier;
+import io.buybrain.util.function.ThrowingDoubleUnaryOperator;
+import lombok.EqualsAndHashCode;
+import lombok.NonNull;
+
+import static io.buybrain.util.Exceptions.sneakyThrow;
+
+/**
+ * A {@link Result} for double values, such as measurements and ratios. The value is kept as a primitive, so numeric
+ * pipelines can chain operations without boxing every intermediate value. NaN and infinities are ordinary OK values;
+ * only a thrown exception makes a result an error.
+ */
+@EqualsAndHashCode
+public class DoubleResult {
+    private final double value;
+    private final Throwable error;
+
+    private DoubleResult(double value, Throwable error) {
+        this.value = value;
+        this.error = error;
+    }
+
+    /**
+     * Chain another operation that may fail. An OK value is handed to the function, which decides the outcome by
+     * returning a DoubleResult of its own. An error skips the function and is returned unchanged.
+     *
+     * @param op the operation, returning its own DoubleResult
+     * @return the result of the operation, or this result if it is an error
+     * @throws Throwable whatever the operation throws, rethrown without wrapping
+     */
+    public DoubleResult map(@NonNull ThrowingDoubleFunction<DoubleResult> op) {
+        if (isOk()) {
+            try {
+                return op.apply(value);
+            } catch (Throwable ex) {
+                throw sneakyThrow(ex);
+            }
+        } else {
+            return this;
+        }
+    }
+
+    /**
+     * Compute a new double from the value if this result is OK. The returned double, NaN included, becomes an OK
+     * result; anything the function throws becomes an error result. An error skips the function.
+     *
+     * @param op the function to apply to the value
+     * @return the computed result, or this result if it is an error
+     */
+    public DoubleResult tryMap(@NonNull ThrowingDoubleUnaryOperator op) {
+        if (isOk()) {
+            try {
+                return ok(op.applyAsDouble(value));
+            } catch (Throwable ex) {
+                return err(ex);
+            }
+        } else {
+            return this;
+        }
+    }
+
+    /**
+     * Compute an object from the value if this result is OK, so the chain can continue as a generic Result. Thrown
+     * exceptions are captured as errors, and an existing error is carried over without calling the function.
+     *
+     * @param op the function to apply to the value
+     * @return a generic result holding the computed object or the error
+     */
+    public <R> Result<R, ?> tryMapToObj(@NonNull ThrowingDoubleFunction<R> op) {
+        if (isOk()) {
+            try {
+                return Result.ok(op.apply(value));
+            } catch (Throwable ex) {
+                return Result.err(ex);
+            }
+        } else {
+            return Result.err(error);
+        }
+    }
+
+    /**
+     * Replace an error with a fallback value. An OK result is returned as is.
+     *
+     * @param defaultValue the fallback value
+     * @return this result if it is OK, otherwise an OK result holding the fallback
+     */
+    public DoubleResult orElse(double defaultValue) {
+        if (isOk()) {
+            return this;
+        } else {
+            return ok(defaultValue);
+        }
+    }
+
+    public double get() throws Throwable {
+        if (isOk()) {
+            return value;
+        } else {
+            throw error;
+        }
+    }
+
+    /**
+     * @return the value without checking for an error, which is 0.0 for error results
+     */
+    public double getUnsafe() {
+        return value;
+    }
+
+    public Throwable getError() {
+        return error;
+    }
+
+    public boolean isOk() {
+        return error == null;
+    }
+
+    /**
+     * Box the value into a generic Result holding a Double
+     *
+     * @return an equivalent generic result
+     */
+    public Result<Double, ?> boxed() {
+        if (isOk()) {
+            return Result.ok(value);
+        } else {
+            return Result.err(error);
+        }
+    }
+
+    /**
+     * Unbox a generic Result holding a Double
+     *
+     * @param result the generic result
+     * @return an equivalent DoubleResult
+     * @throws NullPointerException if the result is OK but holds null, which a primitive double cannot represent
+     */
+    public static DoubleResult of(@NonNull Result<Double, ?> result) {
+        if (result.isOk()) {
+            return ok(result.getUnsafe());
+        } else {
+            return err(result.getError());
+        }
+    }
+
+    public static DoubleResult trying(@NonNull ThrowingDoubleSupplier op) {
+        try {
+            return ok(op.getAsDouble());
+        } catch (Throwable ex) {
+            return err(ex);
+        }
+    }
+
+    public static DoubleResult ok(double value) {
+        return new DoubleResult(value, null);
+    }
+
+    public static DoubleResult err(@NonNull Throwable error) {
+        return new DoubleResult(0.0, error);
+    }
+}
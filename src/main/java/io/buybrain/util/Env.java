@@ -74,14 +74,32 @@ public class Env {
      * @throws NumberFormatException if the value cannot be parsed as an integer
      */
     public int getInt(@NonNull String key, int defaultValue) {
-        return parseInt(getString(key, Integer.toString(defaultValue)));
+        if (!env.containsKey(key)) {
+            return defaultValue;
+        }
+        return parseInt(env.get(key));
     }
     
     public Boolean getBoolean(@NonNull String key) {
-        return TRUTHY.contains(getString(key).toLowerCase());
+        return parseBoolean(getString(key));
     }
 
     public Boolean getBoolean(@NonNull String key, boolean defaultValue) {
-        return TRUTHY.contains(getString(key, defaultValue ? "y" : "n").toLowerCase());
+        if (!env.containsKey(key)) {
+            return defaultValue;
+        }
+        return parseBoolean(env.get(key));
+    }
+
+    /**
+     * Interpret a value as a boolean. Truthy values are true, regardless of case; everything else is false.
+     */
+    static boolean parseBoolean(@NonNull String value) {
+        for (String truthy : TRUTHY) {
+            if (truthy.equalsIgnoreCase(value)) {
+                return true;
+            }
+        }
+        return false;
     }
 }
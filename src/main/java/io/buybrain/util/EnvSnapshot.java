@@ -0,0 +1,248 @@
+package io.buybrain.util;
+
+import lombok.NonNull;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Immutable, typed view of a declared set of environment variables, read and parsed once. Unlike {@link Env}, where
+ * every read looks up and parses the value again, and errors only show up when a variable is first read, all
+ * variables are validated when the snapshot is loaded and all problems are reported together. Reads after that don't
+ * parse or allocate anything, so they are cheap enough for per-request feature flags.
+ *
+ * Declare the variables with a {@link Builder}:
+ * <pre>
+ * EnvSnapshot env = EnvSnapshot.builder()
+ *     .string("DATABASE_URL")
+ *     .integer("POOL_SIZE", 10)
+ *     .bool("NEW_CHECKOUT", false)
+ *     .load();
+ * </pre>
+ */
+public class EnvSnapshot {
+    private static final int STRING = 0;
+    private static final int INT = 1;
+    private static final int BOOLEAN = 2;
+
+    private final Map<String, Integer> slots;
+    private final int[] types;
+    private final String[] strings;
+    private final int[] ints;
+    private final boolean[] booleans;
+
+    private EnvSnapshot(Builder builder, Map<String, String> env) {
+        int count = builder.keys.size();
+        slots = new HashMap<>(count * 2);
+        types = new int[count];
+        strings = new String[count];
+        ints = new int[count];
+        booleans = new boolean[count];
+
+        List<String> errors = new ArrayList<>();
+        for (int i = 0; i < count; i++) {
+            Declaration declaration = builder.keys.get(i);
+            slots.put(declaration.key, i);
+            types[i] = declaration.type;
+
+            String value = env.get(declaration.key);
+            if (value == null) {
+                if (declaration.defaultValue == null) {
+                    errors.add("Environment variable " + declaration.key + " is not set");
+                    continue;
+                }
+                value = declaration.defaultValue;
+            }
+            strings[i] = value;
+            if (declaration.type == INT) {
+                try {
+                    ints[i] = Integer.parseInt(value);
+                } catch (NumberFormatException ex) {
+                    errors.add("Environment variable " + declaration.key + " is not an integer: " + value);
+                }
+            } else if (declaration.type == BOOLEAN) {
+                booleans[i] = Env.parseBoolean(value);
+            }
+        }
+
+        if (!errors.isEmpty()) {
+            throw new IllegalArgumentException("Invalid environment:\n" + String.join("\n", errors));
+        }
+    }
+
+    /**
+     * @return a builder to declare the variables of a snapshot
+     */
+    public static Builder builder() {
+        return new Builder();
+    }
+
+    /**
+     * Get the raw value of a declared variable, regardless of its type
+     *
+     * @param key the environment variable
+     * @return the value, or its default if it was not set
+     * @throws IllegalArgumentException if the variable was not declared
+     */
+    public String getString(@NonNull String key) {
+        return strings[slot(key)];
+    }
+
+    /**
+     * Get the value of a variable that was declared as an integer
+     *
+     * @param key the environment variable
+     * @return the value, or its default if it was not set
+     * @throws IllegalArgumentException if the variable was not declared as an integer
+     */
+    public int getInt(@NonNull String key) {
+        return ints[slot(key, INT)];
+    }
+
+    /**
+     * Get the value of a variable that was declared as a boolean
+     *
+     * @param key the environment variable
+     * @return the value, or its default if it was not set
+     * @throws IllegalArgumentException if the variable was not declared as a boolean
+     */
+    public boolean getBoolean(@NonNull String key) {
+        return booleans[slot(key, BOOLEAN)];
+    }
+
+    private int slot(String key) {
+        Integer slot = slots.get(key);
+        if (slot == null) {
+            throw new IllegalArgumentException("Environment variable " + key + " was not declared");
+        }
+        return slot;
+    }
+
+    private int slot(String key, int type) {
+        int slot = slot(key);
+        if (types[slot] != type) {
+            throw new IllegalArgumentException("Environment variable " + key + " was declared with another type");
+        }
+        return slot;
+    }
+
+    /**
+     * Declares the variables of a snapshot. Variables without a default are required.
+     */
+    public static class Builder {
+        private final List<Declaration> keys = new ArrayList<>();
+
+        private Builder() {
+        }
+
+        /**
+         * Declare a required string variable
+         *
+         * @param key the environment variable
+         * @return this builder
+         */
+        public Builder string(@NonNull String key) {
+            return declare(key, STRING, null);
+        }
+
+        /**
+         * Declare an optional string variable
+         *
+         * @param key          the environment variable
+         * @param defaultValue the value to use if the variable is not set
+         * @return this builder
+         */
+        public Builder string(@NonNull String key, @NonNull String defaultValue) {
+            return declare(key, STRING, defaultValue);
+        }
+
+        /**
+         * Declare a required integer variable
+         *
+         * @param key the environment variable
+         * @return this builder
+         */
+        public Builder integer(@NonNull String key) {
+            return declare(key, INT, null);
+        }
+
+        /**
+         * Declare an optional integer variable
+         *
+         * @param key          the environment variable
+         * @param defaultValue the value to use if the variable is not set
+         * @return this builder
+         */
+        public Builder integer(@NonNull String key, int defaultValue) {
+            return declare(key, INT, Integer.toString(defaultValue));
+        }
+
+        /**
+         * Declare a required boolean variable, interpreted like {@link Env#getBoolean(String)}
+         *
+         * @param key the environment variable
+         * @return this builder
+         */
+        public Builder bool(@NonNull String key) {
+            return declare(key, BOOLEAN, null);
+        }
+
+        /**
+         * Declare an optional boolean variable, interpreted like {@link Env#getBoolean(String)}
+         *
+         * @param key          the environment variable
+         * @param defaultValue the value to use if the variable is not set
+         * @return this builder
+         */
+        public Builder bool(@NonNull String key, boolean defaultValue) {
+            return declare(key, BOOLEAN, defaultValue ? "true" : "false");
+        }
+
+        /**
+         * Read all declared variables from the current system environment
+         *
+         * @return the snapshot
+         * @throws IllegalArgumentException listing every required variable that is not set and every value that can't
+         *                                  be parsed
+         */
+        public EnvSnapshot load() {
+            return load(System.getenv());
+        }
+
+        /**
+         * Read all declared variables from a map of environment variables
+         *
+         * @param env the environment variables
+         * @return the snapshot
+         * @throws IllegalArgumentException listing every required variable that is not set and every value that can't
+         *                                  be parsed
+         */
+        public EnvSnapshot load(@NonNull Map<String, String> env) {
+            return new EnvSnapshot(this, env);
+        }
+
+        private Builder declare(String key, int type, String defaultValue) {
+            for (Declaration declaration : keys) {
+                if (declaration.key.equals(key)) {
+                    throw new IllegalArgumentException("Environment variable " + key + " is declared twice");
+                }
+            }
+            keys.add(new Declaration(key, type, defaultValue));
+            return this;
+        }
+    }
+
+    private static class Declaration {
+        private final String key;
+        private final int type;
+        private final String defaultValue;
+
+        Declaration(String key, int type, String defaultValue) {
+            this.key = key;
+            this.type = type;
+            this.defaultValue = defaultValue;
+        }
+    }
+}
@@ -1,13 +1,51 @@
 package io.buybrain.util;
 
 import io.buybrain.util.function.ThrowingConsumer;
+import io.buybrain.util.function.ThrowingDoubleConsumer;
+import io.buybrain.util.function.ThrowingDoubleFunction;
+import io.buybrain.util.function.ThrowingDoublePredicate;
+import io.buybrain.util.function.ThrowingDoubleSupplier;
+import io.buybrain.util.function.ThrowingDoubleUnaryOperator;
 import io.buybrain.util.function.ThrowingFunction;
+import io.buybrain.util.function.ThrowingIntConsumer;
+import io.buybrain.util.function.ThrowingIntFunction;
+import io.buybrain.util.function.ThrowingIntPredicate;
+import io.buybrain.util.function.ThrowingIntSupplier;
+import io.buybrain.util.function.ThrowingIntUnaryOperator;
+import io.buybrain.util.function.ThrowingLongConsumer;
+import io.buybrain.util.function.ThrowingLongFunction;
+import io.buybrain.util.function.ThrowingLongPredicate;
+import io.buybrain.util.function.ThrowingLongSupplier;
+import io.buybrain.util.function.ThrowingLongUnaryOperator;
 import io.buybrain.util.function.ThrowingRunnable;
 import io.buybrain.util.function.ThrowingSupplier;
+import io.buybrain.util.function.ThrowingToDoubleFunction;
+import io.buybrain.util.function.ThrowingToIntFunction;
+import io.buybrain.util.function.ThrowingToLongFunction;
 import lombok.NonNull;
 
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutionException;
 import java.util.function.Consumer;
+import java.util.function.DoubleConsumer;
+import java.util.function.DoubleFunction;
+import java.util.function.DoublePredicate;
+import java.util.function.DoubleSupplier;
+import java.util.function.DoubleUnaryOperator;
 import java.util.function.Function;
+import java.util.function.IntConsumer;
+import java.util.function.IntFunction;
+import java.util.function.IntPredicate;
+import java.util.function.IntSupplier;
+import java.util.function.IntUnaryOperator;
+import java.util.function.LongConsumer;
+import java.util.function.LongFunction;
+import java.util.function.LongPredicate;
+import java.util.function.LongSupplier;
+import java.util.function.LongUnaryOperator;
+import java.util.function.ToDoubleFunction;
+import java.util.function.ToIntFunction;
+import java.util.function.ToLongFunction;
 
 /**
  * Utility functions for dealing with checked exceptions in streams by wrapping them in runtime exceptions.
@@ -15,6 +53,13 @@ import java.util.function.Function;
  * The functions in this class are called `rethrow` and `rethrowR`. The R stands for Returning. The reason for this
  * postfix is to deal with cases where the compiler cannot infer if a lambda function is meant to return or not, which
  * would make a Function and Consumer ambiguous, as well as a Supplier and Runnable.
+ *
+ * Adapters for the primitive specializations in java.util.function, such as `rethrowIntFunction`, are named after
+ * the interface they produce, because overloads of these would be ambiguous for lambdas.
+ *
+ * The `sneaky` and `sneakyR` variants do not wrap at all; they rethrow the original throwable as is, even if it is a
+ * checked exception. This saves allocating a wrapper and keeps the root cause at the top, but it means callers can
+ * receive checked exceptions that the compiler doesn't know about.
  */
 public class Exceptions {
     /**
@@ -45,6 +90,36 @@ public class Exceptions {
         }
     }
 
+    /**
+     * Try to get a value from the given supplier, rethrowing any exception wrapped in a {@link Failure}. Unlike
+     * {@link #rethrowR(ThrowingSupplier)}, the wrapper does not capture a stack trace of its own.
+     *
+     * @param supplier the supplier to get a value from
+     * @param <T> the type of element to get
+     * @return the supplied value
+     */
+    public static <T> T rethrowStacklessR(@NonNull ThrowingSupplier<T> supplier) {
+        try {
+            return supplier.get();
+        } catch (Throwable ex) {
+            throw Failure.wrap(ex);
+        }
+    }
+
+    /**
+     * Try to run a runnable, rethrowing any exception wrapped in a {@link Failure}. Unlike
+     * {@link #rethrow(ThrowingRunnable)}, the wrapper does not capture a stack trace of its own.
+     *
+     * @param runnable the runnable to run
+     */
+    public static void rethrowStackless(@NonNull ThrowingRunnable runnable) {
+        try {
+            runnable.run();
+        } catch (Throwable ex) {
+            throw Failure.wrap(ex);
+        }
+    }
+
     /**
      * Transform a throwing function into a non throwing function by wrapping exceptions in RuntimeExceptions
      *
@@ -79,4 +154,413 @@ public class Exceptions {
             }
         };
     }
+
+    /**
+     * Transform a throwing function into a non throwing {@link IntFunction} by wrapping exceptions in RuntimeExceptions
+     *
+     * @param func the function to transform
+     * @param <R> the functions return type
+     * @return the transformed non-throwing function
+     */
+    public static <R> IntFunction<R> rethrowIntFunction(@NonNull ThrowingIntFunction<R> func) {
+        return value -> {
+            try {
+                return func.apply(value);
+            } catch (Throwable ex) {
+                throw new RuntimeException(ex);
+            }
+        };
+    }
+
+    /**
+     * Transform a throwing operator into a non throwing {@link IntUnaryOperator} by wrapping exceptions in
+     * RuntimeExceptions
+     *
+     * @param func the operator to transform
+     * @return the transformed non-throwing operator
+     */
+    public static IntUnaryOperator rethrowIntUnaryOperator(@NonNull ThrowingIntUnaryOperator func) {
+        return value -> {
+            try {
+                return func.applyAsInt(value);
+            } catch (Throwable ex) {
+                throw new RuntimeException(ex);
+            }
+        };
+    }
+
+    /**
+     * Transform a throwing consumer into a non throwing {@link IntConsumer} by wrapping exceptions in RuntimeExceptions
+     *
+     * @param consumer the consumer to transform
+     * @return the transformed non-throwing consumer
+     */
+    public static IntConsumer rethrowIntConsumer(@NonNull ThrowingIntConsumer consumer) {
+        return value -> {
+            try {
+                consumer.accept(value);
+            } catch (Throwable ex) {
+                throw new RuntimeException(ex);
+            }
+        };
+    }
+
+    /**
+     * Transform a throwing predicate into a non throwing {@link IntPredicate} by wrapping exceptions in
+     * RuntimeExceptions
+     *
+     * @param predicate the predicate to transform
+     * @return the transformed non-throwing predicate
+     */
+    public static IntPredicate rethrowIntPredicate(@NonNull ThrowingIntPredicate predicate) {
+        return value -> {
+            try {
+                return predicate.test(value);
+            } catch (Throwable ex) {
+                throw new RuntimeException(ex);
+            }
+        };
+    }
+
+    /**
+     * Transform a throwing supplier into a non throwing {@link IntSupplier} by wrapping exceptions in RuntimeExceptions
+     *
+     * @param supplier the supplier to transform
+     * @return the transformed non-throwing supplier
+     */
+    public static IntSupplier rethrowIntSupplier(@NonNull ThrowingIntSupplier supplier) {
+        return () -> {
+            try {
+                return supplier.getAsInt();
+            } catch (Throwable ex) {
+                throw new RuntimeException(ex);
+            }
+        };
+    }
+
+    /**
+     * Transform a throwing function into a non throwing {@link ToIntFunction} by wrapping exceptions in
+     * RuntimeExceptions
+     *
+     * @param func the function to transform
+     * @param <T> the functions input type
+     * @return the transformed non-throwing function
+     */
+    public static <T> ToIntFunction<T> rethrowToIntFunction(@NonNull ThrowingToIntFunction<T> func) {
+        return value -> {
+            try {
+                return func.applyAsInt(value);
+            } catch (Throwable ex) {
+                throw new RuntimeException(ex);
+            }
+        };
+    }
+
+    /**
+     * Transform a throwing function into a non throwing {@link LongFunction} by wrapping exceptions in
+     * RuntimeExceptions
+     *
+     * @param func the function to transform
+     * @param <R> the functions return type
+     * @return the transformed non-throwing function
+     */
+    public static <R> LongFunction<R> rethrowLongFunction(@NonNull ThrowingLongFunction<R> func) {
+        return value -> {
+            try {
+                return func.apply(value);
+            } catch (Throwable ex) {
+                throw new RuntimeException(ex);
+            }
+        };
+    }
+
+    /**
+     * Transform a throwing operator into a non throwing {@link LongUnaryOperator} by wrapping exceptions in
+     * RuntimeExceptions
+     *
+     * @param func the operator to transform
+     * @return the transformed non-throwing operator
+     */
+    public static LongUnaryOperator rethrowLongUnaryOperator(@NonNull ThrowingLongUnaryOperator func) {
+        return value -> {
+            try {
+                return func.applyAsLong(value);
+            } catch (Throwable ex) {
+                throw new RuntimeException(ex);
+            }
+        };
+    }
+
+    /**
+     * Transform a throwing consumer into a non throwing {@link LongConsumer} by wrapping exceptions in
+     * RuntimeExceptions
+     *
+     * @param consumer the consumer to transform
+     * @return the transformed non-throwing consumer
+     */
+    public static LongConsumer rethrowLongConsumer(@NonNull ThrowingLongConsumer consumer) {
+        return value -> {
+            try {
+                consumer.accept(value);
+            } catch (Throwable ex) {
+                throw new RuntimeException(ex);
+            }
+        };
+    }
+
+    /**
+     * Transform a throwing predicate into a non throwing {@link LongPredicate} by wrapping exceptions in
+     * RuntimeExceptions
+     *
+     * @param predicate the predicate to transform
+     * @return the transformed non-throwing predicate
+     */
+    public static LongPredicate rethrowLongPredicate(@NonNull ThrowingLongPredicate predicate) {
+        return value -> {
+            try {
+                return predicate.test(value);
+            } catch (Throwable ex) {
+                throw new RuntimeException(ex);
+            }
+        };
+    }
+
+    /**
+     * Transform a throwing supplier into a non throwing {@link LongSupplier} by wrapping exceptions in
+     * RuntimeExceptions
+     *
+     * @param supplier the supplier to transform
+     * @return the transformed non-throwing supplier
+     */
+    public static LongSupplier rethrowLongSupplier(@NonNull ThrowingLongSupplier supplier) {
+        return () -> {
+            try {
+                return supplier.getAsLong();
+            } catch (Throwable ex) {
+                throw new RuntimeException(ex);
+            }
+        };
+    }
+
+    /**
+     * Transform a throwing function into a non throwing {@link ToLongFunction} by wrapping exceptions in
+     * RuntimeExceptions
+     *
+     * @param func the function to transform
+     * @param <T> the functions input type
+     * @return the transformed non-throwing function
+     */
+    public static <T> ToLongFunction<T> rethrowToLongFunction(@NonNull ThrowingToLongFunction<T> func) {
+        return value -> {
+            try {
+                return func.applyAsLong(value);
+            } catch (Throwable ex) {
+                throw new RuntimeException(ex);
+            }
+        };
+    }
+
+    /**
+     * Transform a throwing function into a non throwing {@link DoubleFunction} by wrapping exceptions in
+     * RuntimeExceptions
+     *
+     * @param func the function to transform
+     * @param <R> the functions return type
+     * @return the transformed non-throwing function
+     */
+    public static <R> DoubleFunction<R> rethrowDoubleFunction(@NonNull ThrowingDoubleFunction<R> func) {
+        return value -> {
+            try {
+                return func.apply(value);
+            } catch (Throwable ex) {
+                throw new RuntimeException(ex);
+            }
+        };
+    }
+
+    /**
+     * Transform a throwing operator into a non throwing {@link DoubleUnaryOperator} by wrapping exceptions in
+     * RuntimeExceptions
+     *
+     * @param func the operator to transform
+     * @return the transformed non-throwing operator
+     */
+    public static DoubleUnaryOperator rethrowDoubleUnaryOperator(@NonNull ThrowingDoubleUnaryOperator func) {
+        return value -> {
+            try {
+                return func.applyAsDouble(value);
+            } catch (Throwable ex) {
+                throw new RuntimeException(ex);
+            }
+        };
+    }
+
+    /**
+     * Transform a throwing consumer into a non throwing {@link DoubleConsumer} by wrapping exceptions in
+     * RuntimeExceptions
+     *
+     * @param consumer the consumer to transform
+     * @return the transformed non-throwing consumer
+     */
+    public static DoubleConsumer rethrowDoubleConsumer(@NonNull ThrowingDoubleConsumer consumer) {
+        return value -> {
+            try {
+                consumer.accept(value);
+            } catch (Throwable ex) {
+                throw new RuntimeException(ex);
+            }
+        };
+    }
+
+    /**
+     * Transform a throwing predicate into a non throwing {@link DoublePredicate} by wrapping exceptions in
+     * RuntimeExceptions
+     *
+     * @param predicate the predicate to transform
+     * @return the transformed non-throwing predicate
+     */
+    public static DoublePredicate rethrowDoublePredicate(@NonNull ThrowingDoublePredicate predicate) {
+        return value -> {
+            try {
+                return predicate.test(value);
+            } catch (Throwable ex) {
+                throw new RuntimeException(ex);
+            }
+        };
+    }
+
+    /**
+     * Transform a throwing supplier into a non throwing {@link DoubleSupplier} by wrapping exceptions in
+     * RuntimeExceptions
+     *
+     * @param supplier the supplier to transform
+     * @return the transformed non-throwing supplier
+     */
+    public static DoubleSupplier rethrowDoubleSupplier(@NonNull ThrowingDoubleSupplier supplier) {
+        return () -> {
+            try {
+                return supplier.getAsDouble();
+            } catch (Throwable ex) {
+                throw new RuntimeException(ex);
+            }
+        };
+    }
+
+    /**
+     * Transform a throwing function into a non throwing {@link ToDoubleFunction} by wrapping exceptions in
+     * RuntimeExceptions
+     *
+     * @param func the function to transform
+     * @param <T> the functions input type
+     * @return the transformed non-throwing function
+     */
+    public static <T> ToDoubleFunction<T> rethrowToDoubleFunction(@NonNull ThrowingToDoubleFunction<T> func) {
+        return value -> {
+            try {
+                return func.applyAsDouble(value);
+            } catch (Throwable ex) {
+                throw new RuntimeException(ex);
+            }
+        };
+    }
+
+    /**
+     * Try to get a value from the given supplier, rethrowing any exception as is
+     *
+     * @param supplier the supplier to get a value from
+     * @param <T> the type of element to get
+     * @return the supplied value
+     */
+    public static <T> T sneakyR(@NonNull ThrowingSupplier<T> supplier) {
+        try {
+            return supplier.get();
+        } catch (Throwable ex) {
+            throw sneakyThrow(ex);
+        }
+    }
+
+    /**
+     * Try to run a runnable, rethrowing any exception as is
+     *
+     * @param runnable the runnable to run
+     */
+    public static void sneaky(@NonNull ThrowingRunnable runnable) {
+        try {
+            runnable.run();
+        } catch (Throwable ex) {
+            throw sneakyThrow(ex);
+        }
+    }
+
+    /**
+     * Transform a throwing function into a non throwing function that rethrows exceptions as is
+     *
+     * @param func the function to transform
+     * @param <T> the functions input type
+     * @param <R> the functions return type
+     * @return the transformed function
+     */
+    public static <T, R> Function<T, R> sneakyR(@NonNull ThrowingFunction<T, R> func) {
+        return in -> {
+            try {
+                return func.apply(in);
+            } catch (Throwable ex) {
+                throw sneakyThrow(ex);
+            }
+        };
+    }
+
+    /**
+     * Transform a throwing consumer into a non throwing consumer that rethrows exceptions as is
+     *
+     * @param consumer the consumer to transform
+     * @param <T> the consumers input type
+     * @return the transformed consumer
+     */
+    public static <T> Consumer<T> sneaky(@NonNull ThrowingConsumer<T> consumer) {
+        return in -> {
+            try {
+                consumer.accept(in);
+            } catch (Throwable ex) {
+                throw sneakyThrow(ex);
+            }
+        };
+    }
+
+    /**
+     * Throw any throwable without the compiler requiring it to be declared. The return type only exists so callers
+     * can write `throw sneakyThrow(ex);` to tell the compiler that the code path ends; this method never returns.
+     *
+     * @param ex the throwable to throw
+     * @return never returns
+     */
+    public static RuntimeException sneakyThrow(@NonNull Throwable ex) {
+        throw Exceptions.<RuntimeException>doSneakyThrow(ex);
+    }
+
+    /**
+     * Strip the wrappers that are added when exceptions cross API boundaries, such as the RuntimeException added by
+     * {@link #rethrow(ThrowingRunnable)} and friends, {@link CompletionException} and {@link ExecutionException}.
+     *
+     * @param ex the possibly wrapped throwable
+     * @return the innermost throwable that is not one of the known wrappers
+     */
+    public static Throwable unwrap(@NonNull Throwable ex) {
+        Throwable cur = ex;
+        while (cur.getCause() != null && isWrapper(cur)) {
+            cur = cur.getCause();
+        }
+        return cur;
+    }
+
+    private static boolean isWrapper(Throwable ex) {
+        return ex.getClass() == RuntimeException.class
+            || ex instanceof CompletionException
+            || ex instanceof ExecutionException;
+    }
+
+    @SuppressWarnings("unchecked")
+    private static <E extends Throwable> E doSneakyThrow(Throwable ex) throws E {
+        throw (E) ex;
+    }
 }
@@ -0,0 +1,68 @@
+package io.buybrain.util;
+
+import lombok.NonNull;
+
+/**
+ * Lightweight exception for expected failures, such as parse errors or missing records. It does not capture a stack
+ * trace and does not support suppressed exceptions, so creating one is about as cheap as creating any other object.
+ *
+ * Because instances are immutable, frequently used failures can be created once and stored in a constant:
+ *
+ * <pre>
+ * private static final Failure NOT_FOUND = new Failure("not_found", "Record not found");
+ * </pre>
+ */
+public class Failure extends RuntimeException {
+    private static final long serialVersionUID = 1L;
+
+    private final String code;
+
+    /**
+     * Failure constructor
+     *
+     * @param code    a machine readable code identifying the kind of failure
+     * @param message a human readable description
+     */
+    public Failure(@NonNull String code, String message) {
+        this(code, message, null);
+    }
+
+    /**
+     * Failure constructor
+     *
+     * @param code    a machine readable code identifying the kind of failure
+     * @param message a human readable description
+     * @param cause   the underlying cause, may be null
+     */
+    public Failure(@NonNull String code, String message, Throwable cause) {
+        super(message, cause, false, false);
+        this.code = code;
+    }
+
+    /**
+     * Wrap any throwable in a Failure without capturing a new stack trace. The code will be the class name of the
+     * wrapped throwable. If the throwable already is a Failure, it is returned as is.
+     *
+     * @param cause the throwable to wrap
+     * @return the wrapping failure
+     */
+    public static Failure wrap(@NonNull Throwable cause) {
+        if (cause instanceof Failure) {
+            return (Failure) cause;
+        }
+        return new Failure(cause.getClass().getName(), cause.getMessage(), cause);
+    }
+
+    /**
+     * @return the machine readable code identifying the kind of failure
+     */
+    public String getCode() {
+        return code;
+    }
+
+    @Override
+    public String toString() {
+        String message = getLocalizedMessage();
+        return message == null ? "Failure[" + code + "]" : "Failure[" + code + "]: " + message;
+    }
+}
@@ -0,0 +1,161 @@
+package io.buybrain.util;
+
+import io.buybrain.util.function.ThrowingIntFunction;
+import io.buybrain.util.function.ThrowingIntSupplier;
+import io.buybrain.util.function.ThrowingIntUnaryOperator;
+import lombok.EqualsAndHashCode;
+import lombok.NonNull;
+
+import static io.buybrain.util.Exceptions.sneakyThrow;
+
+/**
+ * Specialization of {@link Result} for int values. The value is stored as a primitive, so chains of operations on OK
+ * results do not box.
+ */
+@EqualsAndHashCode
+public class IntResult {
+    private final int value;
+    private final Throwable error;
+
+    private IntResult(int value, Throwable error) {
+        this.value = value;
+        this.error = error;
+    }
+
+    /**
+     * If the current value is OK, transform it into a new IntResult by applying a function.
+     *
+     * @param op the function to apply, should return an IntResult object
+     * @return the transformed result
+     * @throws Throwable whatever the mapping function throws, rethrown without wrapping
+     */
+    public IntResult map(@NonNull ThrowingIntFunction<IntResult> op) {
+        if (isOk()) {
+            try {
+                return op.apply(value);
+            } catch (Throwable ex) {
+                throw sneakyThrow(ex);
+            }
+        } else {
+            return this;
+        }
+    }
+
+    /**
+     * If the current value is OK, transform it into a new IntResult by applying a function.
+     * The function should return the raw int value. It will be wrapped in OK if the function returns, and any
+     * throwable thrown will be wrapped in an Error result.
+     *
+     * @param op the function to apply
+     * @return the transformed result
+     */
+    public IntResult tryMap(@NonNull ThrowingIntUnaryOperator op) {
+        if (isOk()) {
+            try {
+                return ok(op.applyAsInt(value));
+            } catch (Throwable ex) {
+                return err(ex);
+            }
+        } else {
+            return this;
+        }
+    }
+
+    /**
+     * If the current value is OK, transform it into a generic Result by applying a function.
+     * The function should return the raw value. It will be wrapped in OK if the function returns, and any throwable
+     * thrown will be wrapped in an Error result.
+     *
+     * @param op the function to apply
+     * @return the transformed result
+     */
+    public <R> Result<R, ?> tryMapToObj(@NonNull ThrowingIntFunction<R> op) {
+        if (isOk()) {
+            try {
+                return Result.ok(op.apply(value));
+            } catch (Throwable ex) {
+                return Result.err(ex);
+            }
+        } else {
+            return Result.err(error);
+        }
+    }
+
+    /**
+     * If the current value is an error, transform it into a default value.
+     *
+     * @param defaultValue the default value
+     * @return the new OK result wrapping the default value
+     */
+    public IntResult orElse(int defaultValue) {
+        if (isOk()) {
+            return this;
+        } else {
+            return ok(defaultValue);
+        }
+    }
+
+    public int get() throws Throwable {
+        if (isOk()) {
+            return value;
+        } else {
+            throw error;
+        }
+    }
+
+    public int getUnsafe() {
+        return value;
+    }
+
+    public Throwable getError() {
+        return error;
+    }
+
+    public boolean isOk() {
+        return error == null;
+    }
+
+    /**
+     * Convert this result into a generic Result, boxing the value
+     *
+     * @return the generic result
+     */
+    public Result<Integer, ?> boxed() {
+        if (isOk()) {
+            return Result.ok(value);
+        } else {
+            return Result.err(error);
+        }
+    }
+
+    /**
+     * Convert a generic Result into an IntResult, unboxing the value
+     *
+     * @param result the generic result
+     * @return the specialized result
+     * @throws NullPointerException if the result is OK but holds null
+     */
+    public static IntResult of(@NonNull Result<Integer, ?> result) {
+        if (result.isOk()) {
+            return ok(result.getUnsafe());
+        } else {
+            return err(result.getError());
+        }
+    }
+
+    public static IntResult trying(@NonNull ThrowingIntSupplier op) {
+        try {
+            return ok(op.getAsInt());
+        } catch (Throwable ex) {
+            return err(ex);
+        }
+    }
+
+    public static IntResult ok(int value) {
+        return new IntResult(value, null);
+    }
+
+    public static IntResult err(@NonNull Throwable error) {
+        return new IntResult(0, error);
+    }
+}
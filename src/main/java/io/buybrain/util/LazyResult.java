@@ -0,0 +1,226 @@
+package io.buybrain.util;
+
+import io.buybrain.util.function.ThrowingFunction;
+import io.buybrain.util.function.ThrowingSupplier;
+import lombok.NonNull;
+
+import java.util.ArrayDeque;
+import java.util.Deque;
+
+/**
+ * Deferred counterpart of {@link Result}. Combinators only record what should happen; nothing is computed until the
+ * outcome is inspected through {@link #get()}, {@link #isOk()}, {@link #getError()} or {@link #toResult()}. The
+ * outcome is computed at most once, even when inspected by multiple threads at the same time.
+ *
+ * Like {@link ResultFuture}, functions that throw inside any of the combinators yield an Error result, since they
+ * run when the result is inspected rather than when the chain is built.
+ *
+ * @param <T> the value type
+ */
+public class LazyResult<T> {
+    // How to compute the outcome, released once it has been computed. Guarded by the lock on this object.
+    private Link<?, T> link;
+    private volatile Result<T, ?> result;
+
+    private LazyResult(Link<?, T> link) {
+        this.link = link;
+    }
+
+    /**
+     * Create a lazy result that calls a supplier when inspected. Any throwable thrown will be wrapped in an Error
+     * result.
+     *
+     * @param op the supplier to call
+     * @return the lazy result
+     */
+    public static <T> LazyResult<T> trying(@NonNull ThrowingSupplier<T> op) {
+        return defer(() -> Result.trying(op));
+    }
+
+    /**
+     * Create a lazy result that calls a supplier of a Result when inspected
+     *
+     * @param op the supplier to call, should return a Result object
+     * @return the lazy result
+     */
+    public static <T> LazyResult<T> defer(@NonNull ThrowingSupplier<Result<T, ?>> op) {
+        return new LazyResult<>(new Link<Void, T>(null, ignored -> op.get()));
+    }
+
+    /**
+     * Wrap an already available result
+     *
+     * @param result the result
+     * @return the already evaluated lazy result
+     */
+    public static <T> LazyResult<T> of(@NonNull Result<T, ?> result) {
+        LazyResult<T> lazy = new LazyResult<>(null);
+        lazy.result = result;
+        return lazy;
+    }
+
+    /**
+     * If the value is OK, transform it into a new Result by applying a function.
+     *
+     * @param op the function to apply, should return a Result object
+     * @return the deferred transformed result
+     */
+    public <R> LazyResult<R> map(@NonNull ThrowingFunction<T, Result<R, ?>> op) {
+        return then(res -> res.isOk() ? op.apply(res.getUnsafe()) : cast(res));
+    }
+
+    /**
+     * If the value is OK, transform it by applying a function that returns a raw value. The value will be wrapped in
+     * OK if the function returns, and any throwable thrown will be wrapped in an Error result.
+     *
+     * @param op the function to apply, should return the raw value that will be automatically wrapped
+     * @return the deferred transformed result
+     */
+    public <R> LazyResult<R> tryMap(@NonNull ThrowingFunction<T, R> op) {
+        return then(res -> res.isOk() ? Result.ok(op.apply(res.getUnsafe())) : cast(res));
+    }
+
+    /**
+     * If the value is OK, yield a new Result by calling a supplier.
+     *
+     * @param op the supplier to call, should return a Result object
+     * @return the deferred new result
+     */
+    public <R> LazyResult<R> andThen(@NonNull ThrowingSupplier<Result<R, ?>> op) {
+        return then(res -> res.isOk() ? op.get() : cast(res));
+    }
+
+    /**
+     * If the value is an error, transform it into a default value.
+     *
+     * @param defaultValue the default value
+     * @return the deferred new result
+     */
+    public LazyResult<T> orElse(T defaultValue) {
+        return then(res -> res.isOk() ? res : Result.ok(defaultValue));
+    }
+
+    /**
+     * If the value is an error, yield a new Result by calling a supplier.
+     *
+     * @param op the supplier to call, should return a Result object
+     * @return the deferred new result
+     */
+    public LazyResult<T> orElse(@NonNull ThrowingSupplier<Result<T, ?>> op) {
+        return then(res -> res.isOk() ? res : op.get());
+    }
+
+    /**
+     * If the value is an error, transform the error into a new Result by applying a function.
+     *
+     * @param op the function to apply, should return a Result object
+     * @return the deferred new result
+     */
+    public LazyResult<T> mapErr(@NonNull ThrowingFunction<Throwable, Result<T, ?>> op) {
+        return then(res -> res.isOk() ? res : op.apply(res.getError()));
+    }
+
+    public T get() throws Throwable {
+        return evaluate().get();
+    }
+
+    public Throwable getError() {
+        return evaluate().getError();
+    }
+
+    public boolean isOk() {
+        return evaluate().isOk();
+    }
+
+    /**
+     * @return true if the outcome has already been computed
+     */
+    public boolean isEvaluated() {
+        return result != null;
+    }
+
+    /**
+     * Compute the outcome if needed and return it as a regular Result
+     *
+     * @return the result
+     */
+    public Result<T, ?> toResult() {
+        return evaluate();
+    }
+
+    private <R> LazyResult<R> then(ThrowingFunction<Result<T, ?>, Result<R, ?>> step) {
+        return new LazyResult<>(new Link<>(this, step));
+    }
+
+    private Result<T, ?> evaluate() {
+        Result<T, ?> res = result;
+        if (res != null) {
+            return res;
+        }
+
+        // Walk up to the nearest ancestor that is evaluated or has no parent, and evaluate the chain from there down.
+        // Recursing instead would overflow the stack on long chains.
+        Deque<LazyResult<?>> pending = new ArrayDeque<>();
+        LazyResult<?> node = this;
+        while (true) {
+            LazyResult<?> parent;
+            synchronized (node) {
+                if (node.result != null || node.link.parent == null) {
+                    break;
+                }
+                parent = node.link.parent;
+            }
+            pending.push(node);
+            node = parent;
+        }
+        node.compute();
+        while (!pending.isEmpty()) {
+            pending.pop().compute();
+        }
+        return result;
+    }
+
+    /**
+     * Compute the outcome, given that the parent, if any, has already been evaluated
+     */
+    private synchronized Result<T, ?> compute() {
+        Result<T, ?> res = result;
+        if (res == null) {
+            try {
+                res = link.run();
+            } catch (Throwable ex) {
+                res = Result.err(ex);
+            }
+            if (res == null) {
+                res = Result.err(new NullPointerException("Deferred supplier returned null"));
+            }
+            result = res;
+            // Release everything captured by the chain, it's no longer needed
+            link = null;
+        }
+        return res;
+    }
+
+    @SuppressWarnings("unchecked")
+    private static <R> Result<R, ?> cast(Result<?, ?> result) {
+        return (Result<R, ?>) result;
+    }
+
+    /**
+     * A step in a chain: the parent whose outcome is the input, or null for the start of a chain, and the function
+     * computing the outcome from it
+     */
+    private static class Link<P, T> {
+        private final LazyResult<P> parent;
+        private final ThrowingFunction<Result<P, ?>, Result<T, ?>> step;
+
+        Link(LazyResult<P> parent, ThrowingFunction<Result<P, ?>, Result<T, ?>> step) {
+            this.parent = parent;
+            this.step = step;
+        }
+
+        Result<T, ?> run() throws Throwable {
+            return step.apply(parent == null ? null : parent.result);
+        }
+    }
+}
@@ -0,0 +1,164 @@
+package io.buybrain.util;
+
+import io.buybrain.util.function.ThrowingLongFunction;
+import io.buybrain.util.function.ThrowingLongSupplier;
+import io.buybrain.util.function.ThrowingLongUnaryOperator;
+import lombok.EqualsAndHashCode;
+import lombok.NonNull;
+
+import static io.buybrain.util.Exceptions.sneakyThrow;
+
+/**
+ * A {@link Result} for long values, such as counters, ids and timestamps. The value is kept as a primitive, so a
+ * chain of operations on an OK result never boxes it. Use {@link #boxed()} and {@link #of(Result)} to switch between
+ * this and a generic Result.
+ */
+@EqualsAndHashCode
+public class LongResult {
+    private final long value;
+    private final Throwable error;
+
+    private LongResult(long value, Throwable error) {
+        this.value = value;
+        this.error = error;
+    }
+
+    /**
+     * Chain another operation that may fail. If this result is OK, its value is passed to the function and whatever
+     * result the function returns is the outcome. An error is passed along without calling the function.
+     *
+     * @param op the operation, returning its own LongResult
+     * @return the result of the operation, or this result if it is an error
+     * @throws Throwable whatever the operation throws, rethrown without wrapping
+     */
+    public LongResult map(@NonNull ThrowingLongFunction<LongResult> op) {
+        if (isOk()) {
+            try {
+                return op.apply(value);
+            } catch (Throwable ex) {
+                throw sneakyThrow(ex);
+            }
+        } else {
+            return this;
+        }
+    }
+
+    /**
+     * Compute a new long from the value if this result is OK. A returned long becomes an OK result; anything the
+     * function throws becomes an error result. An error is passed along without calling the function.
+     *
+     * @param op the function to apply to the value
+     * @return the computed result, or this result if it is an error
+     */
+    public LongResult tryMap(@NonNull ThrowingLongUnaryOperator op) {
+        if (isOk()) {
+            try {
+                return ok(op.applyAsLong(value));
+            } catch (Throwable ex) {
+                return err(ex);
+            }
+        } else {
+            return this;
+        }
+    }
+
+    /**
+     * Compute an object from the value if this result is OK, leaving the long specialization. A returned value becomes
+     * an OK result; anything the function throws becomes an error result. An error is carried over as is.
+     *
+     * @param op the function to apply to the value
+     * @return a generic result holding the computed object or the error
+     */
+    public <R> Result<R, ?> tryMapToObj(@NonNull ThrowingLongFunction<R> op) {
+        if (isOk()) {
+            try {
+                return Result.ok(op.apply(value));
+            } catch (Throwable ex) {
+                return Result.err(ex);
+            }
+        } else {
+            return Result.err(error);
+        }
+    }
+
+    /**
+     * Recover from an error with a fixed value
+     *
+     * @param defaultValue the value to use if this result is an error
+     * @return this result if it is OK, otherwise an OK result holding the default value
+     */
+    public LongResult orElse(long defaultValue) {
+        if (isOk()) {
+            return this;
+        } else {
+            return ok(defaultValue);
+        }
+    }
+
+    public long get() throws Throwable {
+        if (isOk()) {
+            return value;
+        } else {
+            throw error;
+        }
+    }
+
+    /**
+     * @return the value without checking for an error, which is 0 for error results
+     */
+    public long getUnsafe() {
+        return value;
+    }
+
+    public Throwable getError() {
+        return error;
+    }
+
+    public boolean isOk() {
+        return error == null;
+    }
+
+    /**
+     * Box the value into a generic Result, for code that doesn't know about the long specialization
+     *
+     * @return an equivalent generic result
+     */
+    public Result<Long, ?> boxed() {
+        if (isOk()) {
+            return Result.ok(value);
+        } else {
+            return Result.err(error);
+        }
+    }
+
+    /**
+     * Unbox a generic Result holding a Long
+     *
+     * @param result the generic result
+     * @return an equivalent LongResult
+     * @throws NullPointerException if the result is OK but holds null, since that has no long equivalent
+     */
+    public static LongResult of(@NonNull Result<Long, ?> result) {
+        if (result.isOk()) {
+            return ok(result.getUnsafe());
+        } else {
+            return err(result.getError());
+        }
+    }
+
+    public static LongResult trying(@NonNull ThrowingLongSupplier op) {
+        try {
+            return ok(op.getAsLong());
+        } catch (Throwable ex) {
+            return err(ex);
+        }
+    }
+
+    public static LongResult ok(long value) {
+        return new LongResult(value, null);
+    }
+
+    public static LongResult err(@NonNull Throwable error) {
+        return new LongResult(0L, error);
+    }
+}
@@ -7,8 +7,11 @@ import io.buybrain.util.function.ThrowingSupplier;
 import lombok.EqualsAndHashCode;
 import lombok.NonNull;
 
-import static io.buybrain.util.Exceptions.rethrow;
-import static io.buybrain.util.Exceptions.rethrowR;
+import java.util.concurrent.CompletionStage;
+
+import static io.buybrain.util.Exceptions.sneaky;
+import static io.buybrain.util.Exceptions.sneakyR;
+import static io.buybrain.util.Exceptions.sneakyThrow;
 
 /**
  * Type that can be used to encode the result of a function, which can succeed or fail. Similar to Optional, but with
@@ -16,6 +19,8 @@ import static io.buybrain.util.Exceptions.rethrowR;
  */
 @EqualsAndHashCode
 public class Result<T, E extends Throwable> {
+    private static final Result<Object, Throwable> EMPTY = new Result<>(null, null);
+
     private final T value;
     private final E error;
 
@@ -29,11 +34,15 @@ public class Result<T, E extends Throwable> {
      * 
      * @param op the function to apply, should return a Result object
      * @return the transformed result
-     * @throws RuntimeException if the mapping function throws
+     * @throws Throwable whatever the mapping function throws, rethrown without wrapping
      */
     public <R> Result<R, ?> map(@NonNull ThrowingFunction<T, Result<R, ?>> op) {
         if (isOk()) {
-            return rethrowR(op.bind(value));
+            try {
+                return op.apply(value);
+            } catch (Throwable ex) {
+                throw sneakyThrow(ex);
+            }
         } else {
             //noinspection unchecked
             return (Result<R, ?>) this;
@@ -50,7 +59,11 @@ public class Result<T, E extends Throwable> {
      */
     public <R> Result<R, ?> tryMap(@NonNull ThrowingFunction<T, R> op) {
         if (isOk()) {
-            return trying(op.bind(value));
+            try {
+                return ok(op.apply(value));
+            } catch (Throwable ex) {
+                return err(ex);
+            }
         } else {
             //noinspection unchecked
             return (Result<R, ?>) this;
@@ -62,11 +75,11 @@ public class Result<T, E extends Throwable> {
      *
      * @param op the supplier to call, should return a Result object
      * @return the new result
-     * @throws RuntimeException if the supplier throws
+     * @throws Throwable whatever the supplier throws, rethrown without wrapping
      */
     public <R> Result<R, ?> andThen(@NonNull ThrowingSupplier<Result<R, ?>> op) {
         if (isOk()) {
-            return rethrowR(op);
+            return sneakyR(op);
         } else {
             //noinspection unchecked
             return (Result<R, ?>) this;
@@ -95,11 +108,15 @@ public class Result<T, E extends Throwable> {
      *
      * @param op the consumer to call
      * @return the new (empty) result
-     * @throws RuntimeException if the consumer throws
+     * @throws Throwable whatever the consumer throws, rethrown without wrapping
      */
     public <R> Result<R, ?> andThen(@NonNull ThrowingConsumer<T> op) {
         if (isOk()) {
-            rethrow(op.bind(value));
+            try {
+                op.accept(value);
+            } catch (Throwable ex) {
+                throw sneakyThrow(ex);
+            }
             return ok();
         } else {
             //noinspection unchecked
@@ -116,7 +133,12 @@ public class Result<T, E extends Throwable> {
      */
     public Result<?, ?> andThenTry(@NonNull ThrowingConsumer<T> op) {
         if (isOk()) {
-            return trying(op.bind(value));
+            try {
+                op.accept(value);
+                return ok();
+            } catch (Throwable ex) {
+                return err(ex);
+            }
         } else {
             return this;
         }
@@ -127,11 +149,11 @@ public class Result<T, E extends Throwable> {
      *
      * @param op the runnable to run
      * @return the new (empty) result
-     * @throws RuntimeException if the runnable throws
+     * @throws Throwable whatever the runnable throws, rethrown without wrapping
      */
     public <R> Result<R, ?> andThen(@NonNull ThrowingRunnable op) {
         if (isOk()) {
-            rethrow(op);
+            sneaky(op);
             return ok();
         } else {
             //noinspection unchecked
@@ -145,7 +167,6 @@ public class Result<T, E extends Throwable> {
      *
      * @param op the runnable to run
      * @return the new (empty) result
-     * @throws RuntimeException if the runnable throws
      */
     public <R> Result<R, ?> andThenTry(@NonNull ThrowingRunnable op) {
         if (isOk()) {
@@ -174,7 +195,11 @@ public class Result<T, E extends Throwable> {
         if (isOk()) {
             return this;
         } else {
-            return rethrowR(op.bind(error));
+            try {
+                return op.apply(error);
+            } catch (Throwable ex) {
+                throw sneakyThrow(ex);
+            }
         }
     }
 
@@ -182,7 +207,11 @@ public class Result<T, E extends Throwable> {
         if (isOk()) {
             return this;
         } else {
-            return trying(op.bind(error));
+            try {
+                return ok(op.apply(error));
+            } catch (Throwable ex) {
+                return err(ex);
+            }
         }
     }
 
@@ -190,7 +219,7 @@ public class Result<T, E extends Throwable> {
         if (isOk()) {
             return this;
         } else {
-            return rethrowR(op);
+            return sneakyR(op);
         }
     }
 
@@ -206,7 +235,11 @@ public class Result<T, E extends Throwable> {
         if (isOk()) {
             return this;
         } else {
-            rethrow(op.bind(error));
+            try {
+                op.accept(error);
+            } catch (Throwable ex) {
+                throw sneakyThrow(ex);
+            }
             return ok();
         }
     }
@@ -215,7 +248,12 @@ public class Result<T, E extends Throwable> {
         if (isOk()) {
             return this;
         } else {
-            return trying(op.bind(error));
+            try {
+                op.accept(error);
+                return ok();
+            } catch (Throwable ex) {
+                return err(ex);
+            }
         }
     }
 
@@ -223,7 +261,7 @@ public class Result<T, E extends Throwable> {
         if (isOk()) {
             return this;
         } else {
-            rethrow(op);
+            sneaky(op);
             return ok();
         }
     }
@@ -252,8 +290,14 @@ public class Result<T, E extends Throwable> {
         return error;
     }
 
+    /**
+     * Get an empty OK result. Empty results are immutable, so a single shared instance is returned.
+     *
+     * @return the empty OK result
+     */
+    @SuppressWarnings("unchecked")
     public static <T> Result<T, ?> ok() {
-        return new Result<>(null, null);
+        return (Result<T, ?>) EMPTY;
     }
 
     public static <T> Result<T, ?> trying(@NonNull ThrowingSupplier<T> op) {
@@ -273,6 +317,17 @@ public class Result<T, E extends Throwable> {
         }
     }
 
+    /**
+     * Wrap a completion stage in a {@link ResultFuture}, so Result combinators can be chained onto it without
+     * blocking. Exceptional completion of the stage results in an Error result.
+     *
+     * @param stage the stage to wrap
+     * @return the ResultFuture
+     */
+    public static <T> ResultFuture<T> async(@NonNull CompletionStage<T> stage) {
+        return ResultFuture.of(stage);
+    }
+
     public boolean isOk() {
         return error == null;
     }
@@ -284,4 +339,16 @@ public class Result<T, E extends Throwable> {
     public static <T, E extends Throwable> Result<T, E> err(@NonNull E error) {
         return new Result<>(null, error);
     }
+
+    /**
+     * Create an error result for an expected failure. The error is a {@link Failure}, which does not capture a stack
+     * trace, making this much cheaper than creating a regular exception.
+     *
+     * @param code    a machine readable code identifying the kind of failure
+     * @param message a human readable description
+     * @return the error result
+     */
+    public static <T> Result<T, Failure> fail(@NonNull String code, String message) {
+        return err(new Failure(code, message));
+    }
 }
@@ -0,0 +1,209 @@
+package io.buybrain.util;
+
+import io.buybrain.util.function.ThrowingFunction;
+import io.buybrain.util.function.ThrowingSupplier;
+import lombok.NonNull;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.CompletionStage;
+import java.util.concurrent.Executor;
+
+/**
+ * Asynchronous counterpart of {@link Result}. Wraps a {@link CompletionStage} that completes with a Result, and offers
+ * the same combinators, which are chained onto the stage instead of being applied right away. None of the operations
+ * block the calling thread.
+ *
+ * Since there is no caller to rethrow to once a stage completes, functions that throw inside any of the combinators
+ * yield an Error result, rather than a rethrown exception like their synchronous counterparts. The wrapped stage
+ * itself never completes exceptionally.
+ *
+ * @param <T> the value type
+ */
+public class ResultFuture<T> {
+    private final CompletableFuture<Result<T, ?>> future;
+
+    private ResultFuture(CompletableFuture<Result<T, ?>> future) {
+        this.future = future;
+    }
+
+    /**
+     * Wrap a completion stage. Exceptional completion of the stage results in an Error result.
+     *
+     * @param stage the stage to wrap
+     * @return the new ResultFuture
+     */
+    public static <T> ResultFuture<T> of(@NonNull CompletionStage<T> stage) {
+        return ofResult(stage.thenApply(Result::ok));
+    }
+
+    /**
+     * Wrap a completion stage that completes with a Result, the counterpart of {@link #toStage()}. Exceptional
+     * completion of the stage results in an Error result.
+     *
+     * @param stage the stage to wrap
+     * @return the new ResultFuture
+     */
+    public static <T> ResultFuture<T> ofResult(@NonNull CompletionStage<Result<T, ?>> stage) {
+        return new ResultFuture<>(stage.toCompletableFuture().handle((res, ex) -> {
+            if (ex == null) {
+                return res;
+            }
+            if (ex instanceof CompletionException && ex.getCause() != null) {
+                return Result.err(ex.getCause());
+            }
+            return Result.err(ex);
+        }));
+    }
+
+    /**
+     * Wrap an already available result
+     *
+     * @param result the result
+     * @return the new, already completed, ResultFuture
+     */
+    public static <T> ResultFuture<T> completed(@NonNull Result<T, ?> result) {
+        return new ResultFuture<>(CompletableFuture.completedFuture(result));
+    }
+
+    /**
+     * Run a supplier asynchronously on the given executor. Any throwable thrown will be wrapped in an Error result.
+     *
+     * @param op       the supplier to run
+     * @param executor the executor to run it on
+     * @return the new ResultFuture
+     */
+    public static <T> ResultFuture<T> trying(@NonNull ThrowingSupplier<T> op, @NonNull Executor executor) {
+        return new ResultFuture<>(CompletableFuture.supplyAsync(() -> Result.trying(op), executor));
+    }
+
+    /**
+     * Once completed, if the value is OK, transform it into a new Result by applying a function.
+     *
+     * @param op the function to apply, should return a Result object
+     * @return the transformed future result
+     */
+    public <R> ResultFuture<R> map(@NonNull ThrowingFunction<T, Result<R, ?>> op) {
+        return then(res -> res.isOk() ? op.apply(res.getUnsafe()) : cast(res));
+    }
+
+    /**
+     * Once completed, if the value is OK, transform it by applying a function that returns a raw value. The value
+     * will be wrapped in OK if the function returns, and any throwable thrown will be wrapped in an Error result.
+     *
+     * @param op the function to apply, should return the raw value that will be automatically wrapped
+     * @return the transformed future result
+     */
+    public <R> ResultFuture<R> tryMap(@NonNull ThrowingFunction<T, R> op) {
+        return then(res -> res.isOk() ? Result.ok(op.apply(res.getUnsafe())) : cast(res));
+    }
+
+    /**
+     * Once completed, if the value is OK, transform it by applying a function that starts another asynchronous
+     * operation. Exceptional completion of that operation will be wrapped in an Error result.
+     *
+     * @param op the function to apply, should return a completion stage of the raw value
+     * @return the transformed future result
+     */
+    public <R> ResultFuture<R> mapAsync(@NonNull ThrowingFunction<T, ? extends CompletionStage<R>> op) {
+        return new ResultFuture<>(future.thenCompose(res -> {
+            if (!res.isOk()) {
+                return CompletableFuture.completedFuture(cast(res));
+            }
+            try {
+                return of(op.apply(res.getUnsafe())).future;
+            } catch (Throwable ex) {
+                return CompletableFuture.completedFuture(Result.err(ex));
+            }
+        }));
+    }
+
+    /**
+     * Once completed, if the value is OK, yield a new Result by calling a supplier.
+     *
+     * @param op the supplier to call, should return a Result object
+     * @return the new future result
+     */
+    public <R> ResultFuture<R> andThen(@NonNull ThrowingSupplier<Result<R, ?>> op) {
+        return then(res -> res.isOk() ? op.get() : cast(res));
+    }
+
+    /**
+     * Once completed, if the value is an error, transform it into a default value.
+     *
+     * @param defaultValue the default value
+     * @return the new future result
+     */
+    public ResultFuture<T> orElse(T defaultValue) {
+        return then(res -> res.isOk() ? res : Result.ok(defaultValue));
+    }
+
+    /**
+     * Once completed, if the value is an error, yield a new Result by calling a supplier.
+     *
+     * @param op the supplier to call, should return a Result object
+     * @return the new future result
+     */
+    public ResultFuture<T> orElse(@NonNull ThrowingSupplier<Result<T, ?>> op) {
+        return then(res -> res.isOk() ? res : op.get());
+    }
+
+    /**
+     * Once completed, if the value is an error, transform the error into a new Result by applying a function.
+     *
+     * @param op the function to apply, should return a Result object
+     * @return the new future result
+     */
+    public ResultFuture<T> mapErr(@NonNull ThrowingFunction<Throwable, Result<T, ?>> op) {
+        return then(res -> res.isOk() ? res : op.apply(res.getError()));
+    }
+
+    /**
+     * Get a completion stage that completes with the eventual Result. Completing the returned stage doesn't affect
+     * this ResultFuture or the ones derived from it.
+     *
+     * @return the completion stage
+     */
+    public CompletionStage<Result<T, ?>> toStage() {
+        return future.thenApply(res -> res);
+    }
+
+    /**
+     * Get a future that completes with the eventual value, or completes exceptionally with the eventual error. If a
+     * combinator yielded null instead of a Result, it completes exceptionally with a NullPointerException.
+     *
+     * @return the future
+     */
+    public CompletableFuture<T> toCompletableFuture() {
+        CompletableFuture<T> result = new CompletableFuture<>();
+        future.whenComplete((res, ex) -> {
+            if (ex != null) {
+                result.completeExceptionally(ex instanceof CompletionException && ex.getCause() != null
+                    ? ex.getCause()
+                    : ex);
+            } else if (res == null) {
+                result.completeExceptionally(new NullPointerException("ResultFuture completed with a null Result"));
+            } else if (res.isOk()) {
+                result.complete(res.getUnsafe());
+            } else {
+                result.completeExceptionally(res.getError());
+            }
+        });
+        return result;
+    }
+
+    private <R> ResultFuture<R> then(ThrowingFunction<Result<T, ?>, Result<R, ?>> step) {
+        return new ResultFuture<>(future.thenApply(res -> {
+            try {
+                return step.apply(res);
+            } catch (Throwable ex) {
+                return Result.err(ex);
+            }
+        }));
+    }
+
+    @SuppressWarnings("unchecked")
+    private static <R> Result<R, ?> cast(Result<?, ?> result) {
+        return (Result<R, ?>) result;
+    }
+}
@@ -0,0 +1,245 @@
+package io.buybrain.util;
+
+import io.buybrain.util.function.ThrowingFunction;
+import lombok.NonNull;
+import lombok.Value;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.stream.Collector;
+
+/**
+ * Operations on collections of {@link Result} instances
+ */
+public class Results {
+    /**
+     * Turn a list of results into a single result holding a list of all values. If any of the results is an error,
+     * the first error is returned instead.
+     *
+     * @param results the results to combine
+     * @param <T>     the value type
+     * @return an OK result with all values in order, or the first error
+     */
+    public static <T> Result<List<T>, ?> sequence(@NonNull List<? extends Result<T, ?>> results) {
+        List<T> values = new ArrayList<>(results.size());
+        for (Result<T, ?> result : results) {
+            if (!result.isOk()) {
+                return Result.err(result.getError());
+            }
+            values.add(result.getUnsafe());
+        }
+        return Result.ok(values);
+    }
+
+    /**
+     * Apply a function to every item, stopping at the first item for which it throws.
+     *
+     * @param items the items to process
+     * @param op    the function to apply
+     * @param <T>   the item type
+     * @param <R>   the function return type
+     * @return an OK result with the function outputs in order, or an Error result with the first thrown error
+     */
+    public static <T, R> Result<List<R>, ?> traverse(
+        @NonNull Collection<T> items,
+        @NonNull ThrowingFunction<T, R> op
+    ) {
+        List<R> values = new ArrayList<>(items.size());
+        for (T item : items) {
+            try {
+                values.add(op.apply(item));
+            } catch (Throwable ex) {
+                return Result.err(ex);
+            }
+        }
+        return Result.ok(values);
+    }
+
+    /**
+     * Apply a function to every item, collecting all outputs as well as all thrown errors.
+     *
+     * @param items the items to process
+     * @param op    the function to apply
+     * @param <T>   the item type
+     * @param <R>   the function return type
+     * @return the partition of function outputs and errors, both in item order
+     */
+    public static <T, R> Partition<R> traverseAll(@NonNull Collection<T> items, @NonNull ThrowingFunction<T, R> op) {
+        List<R> successes = new ArrayList<>(items.size());
+        List<Throwable> errors = new ArrayList<>();
+        for (T item : items) {
+            try {
+                successes.add(op.apply(item));
+            } catch (Throwable ex) {
+                errors.add(ex);
+            }
+        }
+        return new Partition<>(successes, errors);
+    }
+
+    /**
+     * Like {@link #traverse(Collection, ThrowingFunction)}, but processes the items in parallel on the common
+     * fork-join pool. Once the function throws for any item, items that have not been started yet are skipped.
+     * When the function throws for multiple items, it is not defined which of the errors is returned.
+     *
+     * @param items the items to process
+     * @param op    the function to apply, must be thread safe
+     * @param <T>   the item type
+     * @param <R>   the function return type
+     * @return an OK result with the function outputs in order, or an Error result with a thrown error
+     */
+    public static <T, R> Result<List<R>, ?> parallelTraverse(
+        @NonNull Collection<T> items,
+        @NonNull ThrowingFunction<T, R> op
+    ) {
+        TraverseTask<T, R> task = new TraverseTask<>(items, op, true);
+        ForkJoinPool.commonPool().invoke(task);
+
+        Throwable failure = task.failure.get();
+        if (failure != null) {
+            return Result.err(failure);
+        }
+        List<R> values = new ArrayList<>(task.outputs.size());
+        for (Result<R, ?> output : task.outputs) {
+            values.add(output.getUnsafe());
+        }
+        return Result.ok(values);
+    }
+
+    /**
+     * Like {@link #traverseAll(Collection, ThrowingFunction)}, but processes the items in parallel on the common
+     * fork-join pool.
+     *
+     * @param items the items to process
+     * @param op    the function to apply, must be thread safe
+     * @param <T>   the item type
+     * @param <R>   the function return type
+     * @return the partition of function outputs and errors, both in item order
+     */
+    public static <T, R> Partition<R> parallelTraverseAll(
+        @NonNull Collection<T> items,
+        @NonNull ThrowingFunction<T, R> op
+    ) {
+        TraverseTask<T, R> task = new TraverseTask<>(items, op, false);
+        ForkJoinPool.commonPool().invoke(task);
+
+        Accumulator<R> acc = new Accumulator<>();
+        for (Result<R, ?> output : task.outputs) {
+            acc.add(output);
+        }
+        return acc.finish();
+    }
+
+    /**
+     * Collector that splits a stream of results into the OK values and the errors
+     *
+     * @param <T> the value type
+     * @return the collector
+     */
+    public static <T> Collector<Result<T, ?>, ?, Partition<T>> partitioning() {
+        return Collector.of(Accumulator<T>::new, Accumulator::add, Accumulator::combine, Accumulator::finish);
+    }
+
+    /**
+     * The outcome of processing a collection where some items may have failed
+     *
+     * @param <T> the value type
+     */
+    @Value
+    public static class Partition<T> {
+        @NonNull List<T> successes;
+        @NonNull List<Throwable> errors;
+
+        /**
+         * @return true if there are no errors
+         */
+        public boolean isOk() {
+            return errors.isEmpty();
+        }
+    }
+
+    private static class Accumulator<T> {
+        private final List<T> successes = new ArrayList<>();
+        private final List<Throwable> errors = new ArrayList<>();
+
+        void add(Result<T, ?> result) {
+            if (result.isOk()) {
+                successes.add(result.getUnsafe());
+            } else {
+                errors.add(result.getError());
+            }
+        }
+
+        Accumulator<T> combine(Accumulator<T> other) {
+            successes.addAll(other.successes);
+            errors.addAll(other.errors);
+            return this;
+        }
+
+        Partition<T> finish() {
+            return new Partition<>(successes, errors);
+        }
+    }
+
+    private static class TraverseTask<T, R> extends RecursiveAction {
+        private static final long serialVersionUID = 1L;
+
+        private final List<T> items;
+        private final ThrowingFunction<T, R> op;
+        private final boolean failFast;
+        // Filled in by index; each slot is written by one subtask and read after the whole task has joined
+        private final List<Result<R, ?>> outputs;
+        private final AtomicReference<Throwable> failure;
+        private final int threshold;
+        private final int from;
+        private final int to;
+
+        TraverseTask(Collection<T> items, ThrowingFunction<T, R> op, boolean failFast) {
+            this.items = new ArrayList<>(items);
+            this.op = op;
+            this.failFast = failFast;
+            this.outputs = new ArrayList<>(Collections.nCopies(this.items.size(), null));
+            this.failure = new AtomicReference<>();
+            // Split into a few tasks per worker, so idle workers can steal when the items vary in cost
+            this.threshold = Math.max(1, this.items.size() / (ForkJoinPool.getCommonPoolParallelism() * 4));
+            this.from = 0;
+            this.to = this.items.size();
+        }
+
+        private TraverseTask(TraverseTask<T, R> parent, int from, int to) {
+            this.items = parent.items;
+            this.op = parent.op;
+            this.failFast = parent.failFast;
+            this.outputs = parent.outputs;
+            this.failure = parent.failure;
+            this.threshold = parent.threshold;
+            this.from = from;
+            this.to = to;
+        }
+
+        @Override
+        protected void compute() {
+            if (to - from > threshold) {
+                int mid = (from + to) >>> 1;
+                invokeAll(new TraverseTask<>(this, from, mid), new TraverseTask<>(this, mid, to));
+                return;
+            }
+            for (int i = from; i < to; i++) {
+                if (failFast && failure.get() != null) {
+                    return;
+                }
+                try {
+                    outputs.set(i, Result.ok(op.apply(items.get(i))));
+                } catch (Throwable ex) {
+                    outputs.set(i, Result.err(ex));
+                    failure.compareAndSet(null, ex);
+                }
+            }
+        }
+    }
+}
@@ -0,0 +1,108 @@
+package io.buybrain.util;
+
+import io.buybrain.util.function.ThrowingFunction;
+import io.buybrain.util.function.ThrowingSupplier;
+import lombok.NonNull;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.Executor;
+
+/**
+ * Coalesces concurrent calls for the same key into a single execution. While an operation for a key is running, other
+ * callers with an equal key don't start their own operation; they wait for the running one and all receive the same
+ * Result. Once it completes, the next call for that key starts a new execution.
+ *
+ * This is useful in front of caches, where many threads may miss on the same key at the same time and would
+ * otherwise all hit the backing store.
+ *
+ * @param <K> the key type
+ * @param <V> the value type
+ */
+public class SingleFlight<K, V> {
+    private final ConcurrentMap<K, Flight<V>> inFlight = new ConcurrentHashMap<>();
+
+    /**
+     * Wrap a function such that concurrent calls with equal arguments share one execution
+     *
+     * @param func the function to wrap
+     * @param <K>  the function argument type
+     * @param <V>  the function return type
+     * @return the coalescing function
+     */
+    public static <K, V> ThrowingFunction<K, V> coalescing(@NonNull ThrowingFunction<K, V> func) {
+        SingleFlight<K, V> flight = new SingleFlight<>();
+        return key -> flight.run(key, () -> func.apply(key)).get();
+    }
+
+    /**
+     * Run an operation, or wait for the already running operation for the same key. The operation runs on the
+     * calling thread. Any throwable it throws will be wrapped in an Error result.
+     *
+     * @param key the key identifying the operation
+     * @param op  the operation to run if none is running for the key
+     * @return the result of the operation, shared with all concurrent callers for the same key
+     * @throws IllegalStateException if called from within the running operation for the same key, which would wait
+     *                               for itself forever
+     */
+    public Result<V, ?> run(@NonNull K key, @NonNull ThrowingSupplier<V> op) {
+        Flight<V> mine = new Flight<>();
+        mine.owner = Thread.currentThread();
+        Flight<V> existing = inFlight.putIfAbsent(key, mine);
+        if (existing != null) {
+            if (existing.owner == Thread.currentThread()) {
+                throw new IllegalStateException("Re-entrant call for key " + key + " would deadlock");
+            }
+            return existing.join();
+        }
+
+        Result<V, ?> result = Result.trying(op);
+        inFlight.remove(key, mine);
+        mine.complete(result);
+        return result;
+    }
+
+    /**
+     * Run an operation on an executor, or join the already running operation for the same key. Any throwable the
+     * operation throws will be wrapped in an Error result.
+     *
+     * @param key      the key identifying the operation
+     * @param op       the operation to run if none is running for the key
+     * @param executor the executor to run the operation on
+     * @return the future result of the operation, shared with all concurrent callers for the same key
+     */
+    public ResultFuture<V> runAsync(@NonNull K key, @NonNull ThrowingSupplier<V> op, @NonNull Executor executor) {
+        Flight<V> mine = new Flight<>();
+        Flight<V> existing = inFlight.putIfAbsent(key, mine);
+        if (existing != null) {
+            return ResultFuture.ofResult(existing);
+        }
+
+        try {
+            executor.execute(() -> {
+                mine.owner = Thread.currentThread();
+                Result<V, ?> result = Result.trying(op);
+                inFlight.remove(key, mine);
+                mine.complete(result);
+            });
+        } catch (Throwable ex) {
+            // The executor rejected the task, fail everyone who joined in the meantime
+            inFlight.remove(key, mine);
+            mine.complete(Result.err(ex));
+        }
+        return ResultFuture.ofResult(mine);
+    }
+
+    /**
+     * @return the number of keys that currently have an operation running
+     */
+    public int inFlightCount() {
+        return inFlight.size();
+    }
+
+    private static class Flight<V> extends CompletableFuture<Result<V, ?>> {
+        // The thread running the operation, so it can be told apart from callers that should wait for it
+        private volatile Thread owner;
+    }
+}
@@ -0,0 +1,242 @@
+package io.buybrain.util;
+
+import io.buybrain.util.function.ThrowingConsumer;
+import io.buybrain.util.function.ThrowingFunction;
+import lombok.NonNull;
+
+import java.util.List;
+import java.util.Spliterator;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Consumer;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
+
+/**
+ * Wrapper around a {@link Stream} that accepts throwing functions directly. Instead of aborting the stream, a throwing
+ * function turns the element into an Error {@link Result}, and later operations skip it. This way a single failing
+ * element doesn't throw away the work done on all other elements, which matters most for parallel streams.
+ *
+ * Optionally, a maximum number of errors can be configured. Once it's reached, the stream ends early: no more
+ * elements are pulled from the source, and a single {@link #CANCELLED} error marks where the rest was skipped. Errors
+ * are counted separately for every terminal operation.
+ *
+ * @param <T> the element type
+ */
+public class ThrowingStream<T> {
+    /**
+     * Error marking that the remaining elements were skipped because the maximum number of errors was reached
+     */
+    public static final Failure CANCELLED = new Failure(
+        "cancelled",
+        "Skipped because the maximum number of errors was reached"
+    );
+
+    // Builds the stream once a terminal operation is started, with the error limit for that operation
+    private final Function<ErrorLimit, Stream<Result<T, ?>>> pipeline;
+    private final int maxErrors;
+
+    private ThrowingStream(Function<ErrorLimit, Stream<Result<T, ?>>> pipeline, int maxErrors) {
+        this.pipeline = pipeline;
+        this.maxErrors = maxErrors;
+    }
+
+    /**
+     * Wrap a regular stream
+     *
+     * @param stream the stream to wrap
+     * @return the throwing stream
+     */
+    public static <T> ThrowingStream<T> of(@NonNull Stream<T> stream) {
+        return new ThrowingStream<>(limit -> stream.map(Result::ok), Integer.MAX_VALUE);
+    }
+
+    /**
+     * Wrap a stream of results. Error results are passed along untouched.
+     *
+     * @param stream the stream to wrap
+     * @return the throwing stream
+     */
+    public static <T> ThrowingStream<T> ofResults(@NonNull Stream<Result<T, ?>> stream) {
+        return new ThrowingStream<>(limit -> stream, Integer.MAX_VALUE);
+    }
+
+    /**
+     * Make the underlying stream parallel
+     *
+     * @return the parallel stream
+     */
+    public ThrowingStream<T> parallel() {
+        return new ThrowingStream<>(limit -> pipeline.apply(limit).parallel(), maxErrors);
+    }
+
+    /**
+     * Stop the stream once functions have thrown for the given number of elements. This applies to the whole
+     * pipeline, including operations added before this call.
+     *
+     * @param max the maximum number of errors
+     * @return the limited stream
+     */
+    public ThrowingStream<T> maxErrors(int max) {
+        if (max < 1) {
+            throw new IllegalArgumentException("Maximum number of errors must be at least 1");
+        }
+        return new ThrowingStream<>(pipeline, max);
+    }
+
+    /**
+     * Apply a function to all OK elements. Elements for which it throws become Error results.
+     *
+     * @param op the function to apply
+     * @return the new stream
+     */
+    public <R> ThrowingStream<R> map(@NonNull ThrowingFunction<T, R> op) {
+        return new ThrowingStream<>(limit -> pipeline.apply(limit).map(res -> {
+            if (!res.isOk()) {
+                return cast(res);
+            }
+            if (limit.isReached()) {
+                // Elements already in flight when the limit was reached, or pulled to see if there are any left
+                return Result.err(CANCELLED);
+            }
+            try {
+                return Result.ok(op.apply(res.getUnsafe()));
+            } catch (Throwable ex) {
+                limit.record();
+                return Result.err(ex);
+            }
+        }), maxErrors);
+    }
+    /**
+     * Pass all OK elements to a consumer as they flow through the stream. Elements for which it throws become Error
+     * results.
+     *
+     * @param op the consumer to call
+     * @return the new stream
+     */
+    public ThrowingStream<T> peek(@NonNull ThrowingConsumer<T> op) {
+        return map(val -> {
+            op.accept(val);
+            return val;
+        });
+    }
+
+    /**
+     * Pass all OK elements to a consumer and collect all errors, including those from earlier operations.
+     * This is a terminal operation.
+     *
+     * @param op the consumer to call
+     * @return the errors in encounter order, empty if everything succeeded
+     */
+    public List<Throwable> forEach(@NonNull ThrowingConsumer<T> op) {
+        return peek(op).results()
+            .filter(res -> !res.isOk())
+            .map(Result::getError)
+            .collect(Collectors.toList());
+    }
+
+    /**
+     * Split all elements into OK values and errors. This is a terminal operation.
+     *
+     * @return the partition of values and errors, both in encounter order
+     */
+    public Results.Partition<T> partition() {
+        return results().collect(Results.partitioning());
+    }
+
+    /**
+     * Collect the result of every element, up to where the stream was stopped by the error limit. This is a terminal
+     * operation.
+     *
+     * @return the results in encounter order
+     */
+    public List<Result<T, ?>> toList() {
+        return results().collect(Collectors.toList());
+    }
+
+    /**
+     * @return the underlying stream of results. This is a terminal operation as far as the error limit is concerned.
+     */
+    public Stream<Result<T, ?>> results() {
+        ErrorLimit limit = new ErrorLimit(maxErrors);
+        Stream<Result<T, ?>> stream = pipeline.apply(limit);
+        if (maxErrors == Integer.MAX_VALUE) {
+            return stream;
+        }
+        return StreamSupport.stream(new LimitedSpliterator<>(stream.spliterator(), limit), stream.isParallel())
+            .onClose(stream::close);
+    }
+
+    @SuppressWarnings("unchecked")
+    private static <R> Result<R, ?> cast(Result<?, ?> result) {
+        // Only used for errors, which don't contain a value of either type
+        return (Result<R, ?>) result;
+    }
+
+    private static class ErrorLimit {
+        private final AtomicInteger errors = new AtomicInteger();
+        private final int max;
+
+        ErrorLimit(int max) {
+            this.max = max;
+        }
+
+        boolean isReached() {
+            return errors.get() >= max;
+        }
+
+        void record() {
+            errors.incrementAndGet();
+        }
+    }
+
+    /**
+     * Ends the stream once the error limit is reached, so the rest of the source isn't pulled through the pipeline
+     */
+    private static class LimitedSpliterator<T> implements Spliterator<Result<T, ?>> {
+        private final Spliterator<Result<T, ?>> source;
+        private final ErrorLimit limit;
+        private boolean stopped = false;
+
+        LimitedSpliterator(Spliterator<Result<T, ?>> source, ErrorLimit limit) {
+            this.source = source;
+            this.limit = limit;
+        }
+
+        @Override
+        public boolean tryAdvance(Consumer<? super Result<T, ?>> action) {
+            if (stopped) {
+                return false;
+            }
+            if (limit.isReached()) {
+                stopped = true;
+                // Pull one more element to find out whether anything is being skipped at all
+                if (source.tryAdvance(ignored -> {
+                })) {
+                    action.accept(Result.err(CANCELLED));
+                    return true;
+                }
+                return false;
+            }
+            return source.tryAdvance(action);
+        }
+
+        @Override
+        public Spliterator<Result<T, ?>> trySplit() {
+            Spliterator<Result<T, ?>> prefix = stopped ? null : source.trySplit();
+            return prefix == null ? null : new LimitedSpliterator<>(prefix, limit);
+        }
+
+        @Override
+        public long estimateSize() {
+            return stopped ? 0 : source.estimateSize();
+        }
+
+        @Override
+        public int characteristics() {
+            // The stream may end early, so its size isn't known up front
+            return source.characteristics() & ~(SIZED | SUBSIZED);
+        }
+    }
+}
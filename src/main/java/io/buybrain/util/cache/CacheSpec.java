@@ -0,0 +1,82 @@
+package io.buybrain.util.cache;
+
+import io.buybrain.util.time.Clock;
+import io.buybrain.util.time.SystemClock;
+import lombok.NonNull;
+
+import java.time.Duration;
+
+/**
+ * Configuration for a {@link CachedFunction}. Settings are copied when a cache is created, so a spec can be reused.
+ */
+public class CacheSpec {
+    private int maximumSize = 10_000;
+    private Duration expireAfterWrite = null;
+    private Duration negativeTtl = null;
+    private Clock clock = SystemClock.get();
+
+    /**
+     * The maximum number of entries. When the cache is full, it uses recency and frequency of access to decide
+     * which entries to keep.
+     *
+     * @param size the maximum number of entries, must be positive
+     * @return this spec
+     */
+    public CacheSpec maximumSize(int size) {
+        if (size < 1) {
+            throw new IllegalArgumentException("Maximum size must be at least 1");
+        }
+        maximumSize = size;
+        return this;
+    }
+
+    /**
+     * Expire successfully loaded values a fixed duration after they were loaded. By default values don't expire.
+     *
+     * @param ttl the time to live
+     * @return this spec
+     */
+    public CacheSpec expireAfterWrite(@NonNull Duration ttl) {
+        expireAfterWrite = ttl;
+        return this;
+    }
+
+    /**
+     * Also cache failed loads, for the given duration. By default failures are not cached, so every call for a key
+     * whose load fails will try to load it again.
+     *
+     * @param ttl the time to live of failures
+     * @return this spec
+     */
+    public CacheSpec negativeTtl(@NonNull Duration ttl) {
+        negativeTtl = ttl;
+        return this;
+    }
+
+    /**
+     * The clock used to determine expiry
+     *
+     * @param clock the clock
+     * @return this spec
+     */
+    public CacheSpec clock(@NonNull Clock clock) {
+        this.clock = clock;
+        return this;
+    }
+
+    int getMaximumSize() {
+        return maximumSize;
+    }
+
+    Duration getExpireAfterWrite() {
+        return expireAfterWrite;
+    }
+
+    Duration getNegativeTtl() {
+        return negativeTtl;
+    }
+
+    Clock getClock() {
+        return clock;
+    }
+}
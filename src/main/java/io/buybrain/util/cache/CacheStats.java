@@ -0,0 +1,22 @@
+package io.buybrain.util.cache;
+
+import lombok.Value;
+
+/**
+ * Snapshot of the counters of a {@link CachedFunction}
+ */
+@Value
+public class CacheStats {
+    long hitCount;
+    long missCount;
+    long loadFailureCount;
+    long evictionCount;
+
+    /**
+     * @return the fraction of requests that were served from the cache, or 1 if there were no requests
+     */
+    public double hitRate() {
+        long requests = hitCount + missCount;
+        return requests == 0 ? 1.0 : (double) hitCount / requests;
+    }
+}
@@ -0,0 +1,287 @@
+package io.buybrain.util.cache;
+
+import io.buybrain.util.Result;
+import io.buybrain.util.SingleFlight;
+import io.buybrain.util.function.ThrowingFunction;
+import io.buybrain.util.time.Clock;
+import lombok.NonNull;
+
+import java.time.Duration;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Thread safe, size bounded cache in front of a throwing function.
+ *
+ * Eviction follows the W-TinyLFU scheme: new entries go into a small LRU window. Entries pushed out of the window only
+ * make it into the main LRU region if they have been requested more often than the entry they would replace there,
+ * according to a {@link FrequencySketch}. This keeps frequently used entries around when a burst of one-off keys
+ * passes through, which plain LRU doesn't.
+ *
+ * Hits don't take a lock: they read from a concurrent map and record the access in a small buffer, striped by thread.
+ * The buffer is replayed into the sketch and the LRU order under the eviction lock in batches. When the buffer is
+ * full, accesses may be dropped, which only makes the frequency and recency estimates slightly less precise.
+ *
+ * Loads happen outside of the eviction lock, so a slow load doesn't block lookups of other keys. Concurrent misses on
+ * the same key share a single load.
+ *
+ * @param <K> the key type
+ * @param <V> the value type
+ */
+public class CachedFunction<K, V> implements ThrowingFunction<K, V> {
+    private static final int MAX_STRIPES = 64;
+    private static final int STRIPE_SIZE = 32;
+    private static final int STRIPE_MASK = STRIPE_SIZE - 1;
+    // Spacing between stripe counters, so each one gets a cache line of its own
+    private static final int COUNTER_SPACING = 8;
+
+    private final ThrowingFunction<K, V> loader;
+    private final Clock clock;
+    private final Duration expireAfterWrite;
+    private final Duration negativeTtl;
+    private final int windowMaxSize;
+    private final int mainMaxSize;
+
+    private final ConcurrentHashMap<K, Entry<V>> data = new ConcurrentHashMap<>();
+    private final SingleFlight<K, V> loads = new SingleFlight<>();
+    private final int stripeMask;
+    private final AtomicReferenceArray<K> readBuffer;
+    private final AtomicLongArray readCounts;
+
+    // Guarded by evictionLock
+    private final ReentrantLock evictionLock = new ReentrantLock();
+    private final LinkedHashMap<K, Entry<V>> window = new LinkedHashMap<>(16, 0.75f, true);
+    private final LinkedHashMap<K, Entry<V>> main = new LinkedHashMap<>(16, 0.75f, true);
+    private final FrequencySketch sketch;
+    private long evictionCount;
+
+    private final LongAdder hitCount = new LongAdder();
+    private final LongAdder missCount = new LongAdder();
+    private final LongAdder loadFailureCount = new LongAdder();
+
+    /**
+     * CachedFunction constructor
+     *
+     * @param loader the function to cache
+     * @param spec   the cache configuration
+     */
+    public CachedFunction(@NonNull ThrowingFunction<K, V> loader, @NonNull CacheSpec spec) {
+        this.loader = loader;
+        this.clock = spec.getClock();
+        this.expireAfterWrite = spec.getExpireAfterWrite();
+        this.negativeTtl = spec.getNegativeTtl();
+        // Reserve 1% for the window, as recommended for W-TinyLFU
+        this.windowMaxSize = Math.max(1, spec.getMaximumSize() / 100);
+        this.mainMaxSize = Math.max(0, spec.getMaximumSize() - windowMaxSize);
+        this.sketch = new FrequencySketch(spec.getMaximumSize());
+
+        // Threads record reads in a stripe of the buffer picked by thread id, with one stripe per core or more, so
+        // hits on different cores don't contend on the same counter
+        int stripes = Math.min(MAX_STRIPES, Integer.highestOneBit(Runtime.getRuntime().availableProcessors() * 2 - 1));
+        this.stripeMask = stripes - 1;
+        this.readBuffer = new AtomicReferenceArray<>(stripes * STRIPE_SIZE);
+        this.readCounts = new AtomicLongArray(stripes * COUNTER_SPACING);
+    }
+
+    /**
+     * Get the cached value for a key, loading it if needed
+     *
+     * @param key the key
+     * @return the value
+     * @throws Throwable whatever the loader throws when loading the value
+     */
+    @Override
+    public V apply(K key) throws Throwable {
+        return getResult(key).get();
+    }
+
+    /**
+     * Get the cached result for a key, loading it if needed
+     *
+     * @param key the key
+     * @return the value, or the error the loader threw while loading it
+     */
+    public Result<V, ?> getResult(@NonNull K key) {
+        Entry<V> entry = getFresh(key);
+        if (entry != null) {
+            hitCount.increment();
+            recordRead(key);
+            return entry.result;
+        }
+        missCount.increment();
+        return loads.run(key, () -> load(key));
+    }
+
+    /**
+     * Remove the entry for a key, if present
+     *
+     * @param key the key
+     */
+    public void invalidate(K key) {
+        evictionLock.lock();
+        try {
+            window.remove(key);
+            main.remove(key);
+            data.remove(key);
+        } finally {
+            evictionLock.unlock();
+        }
+    }
+
+    /**
+     * Remove all entries
+     */
+    public void invalidateAll() {
+        evictionLock.lock();
+        try {
+            window.clear();
+            main.clear();
+            data.clear();
+        } finally {
+            evictionLock.unlock();
+        }
+    }
+
+    /**
+     * @return the number of entries, including ones that have expired but have not been removed yet
+     */
+    public int size() {
+        return data.size();
+    }
+
+    /**
+     * @return a snapshot of the hit, miss and eviction counters
+     */
+    public CacheStats stats() {
+        long evictions;
+        evictionLock.lock();
+        try {
+            evictions = evictionCount;
+        } finally {
+            evictionLock.unlock();
+        }
+        return new CacheStats(hitCount.sum(), missCount.sum(), loadFailureCount.sum(), evictions);
+    }
+
+    private Entry<V> getFresh(K key) {
+        Entry<V> entry = data.get(key);
+        if (entry == null || entry.expiresAt <= clock.nowMillis()) {
+            return null;
+        }
+        return entry;
+    }
+
+    private V load(K key) throws Throwable {
+        // Another caller may have finished loading the key between our miss and joining the flight
+        Entry<V> entry = getFresh(key);
+        if (entry != null) {
+            return entry.result.get();
+        }
+
+        Result<V, ?> result = Result.trying(() -> loader.apply(key));
+        Duration ttl = expireAfterWrite;
+        if (!result.isOk()) {
+            loadFailureCount.increment();
+            ttl = negativeTtl;
+        }
+        if (result.isOk() || negativeTtl != null) {
+            long expiresAt = ttl == null ? Long.MAX_VALUE : clock.nowMillis() + ttl.toMillis();
+            evictionLock.lock();
+            try {
+                drainReads();
+                sketch.increment(Objects.hashCode(key));
+                put(key, new Entry<>(result, expiresAt));
+            } finally {
+                evictionLock.unlock();
+            }
+        }
+        return result.get();
+    }
+
+    private void recordRead(K key) {
+        int stripe = (int) Thread.currentThread().getId() & stripeMask;
+        long index = readCounts.getAndIncrement(stripe * COUNTER_SPACING);
+        readBuffer.lazySet(stripe * STRIPE_SIZE + (int) (index & STRIPE_MASK), key);
+        if ((index & STRIPE_MASK) == STRIPE_MASK && evictionLock.tryLock()) {
+            try {
+                drainReads();
+            } finally {
+                evictionLock.unlock();
+            }
+        }
+    }
+
+    private void drainReads() {
+        for (int i = 0; i < readBuffer.length(); i++) {
+            if (readBuffer.get(i) == null) {
+                continue;
+            }
+            K key = readBuffer.getAndSet(i, null);
+            if (key != null) {
+                sketch.increment(Objects.hashCode(key));
+                // Looking up a key moves it to the most recently used end
+                if (window.get(key) == null) {
+                    main.get(key);
+                }
+            }
+        }
+    }
+
+    private void put(K key, Entry<V> entry) {
+        data.put(key, entry);
+        if (main.containsKey(key)) {
+            main.put(key, entry);
+            return;
+        }
+        window.put(key, entry);
+        if (window.size() <= windowMaxSize) {
+            return;
+        }
+
+        // The window overflowed; its least recently used entry becomes a candidate for the main region
+        Iterator<Map.Entry<K, Entry<V>>> windowIt = window.entrySet().iterator();
+        Map.Entry<K, Entry<V>> candidate = windowIt.next();
+        windowIt.remove();
+
+        if (main.size() < mainMaxSize) {
+            main.put(candidate.getKey(), candidate.getValue());
+            return;
+        }
+        if (mainMaxSize == 0) {
+            data.remove(candidate.getKey());
+            evictionCount++;
+            return;
+        }
+
+        Iterator<Map.Entry<K, Entry<V>>> mainIt = main.entrySet().iterator();
+        Map.Entry<K, Entry<V>> victim = mainIt.next();
+        int candidateFreq = sketch.frequency(Objects.hashCode(candidate.getKey()));
+        int victimFreq = sketch.frequency(Objects.hashCode(victim.getKey()));
+        if (candidateFreq > victimFreq) {
+            mainIt.remove();
+            data.remove(victim.getKey());
+            main.put(candidate.getKey(), candidate.getValue());
+        } else {
+            data.remove(candidate.getKey());
+        }
+        evictionCount++;
+    }
+
+    private static class Entry<V> {
+        private final Result<V, ?> result;
+        // Epoch milliseconds, Long.MAX_VALUE if the entry doesn't expire
+        private final long expiresAt;
+
+        Entry(Result<V, ?> result, long expiresAt) {
+            this.result = result;
+            this.expiresAt = expiresAt;
+        }
+    }
+}
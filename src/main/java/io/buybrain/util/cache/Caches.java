@@ -0,0 +1,22 @@
+package io.buybrain.util.cache;
+
+import io.buybrain.util.function.ThrowingFunction;
+import lombok.NonNull;
+
+/**
+ * Factory methods for caches
+ */
+public class Caches {
+    /**
+     * Put a size bounded cache in front of a throwing function
+     *
+     * @param func the function to cache
+     * @param spec the cache configuration
+     * @param <K>  the function argument type
+     * @param <V>  the function return type
+     * @return the cached function
+     */
+    public static <K, V> CachedFunction<K, V> cached(@NonNull ThrowingFunction<K, V> func, @NonNull CacheSpec spec) {
+        return new CachedFunction<>(func, spec);
+    }
+}
@@ -0,0 +1,10 @@
+package io.buybrain.util.function;
+
+@FunctionalInterface
+public interface ThrowingDoubleConsumer {
+    void accept(double value) throws Throwable;
+
+    default ThrowingRunnable bind(double val) {
+        return () -> this.accept(val);
+    }
+}
@@ -0,0 +1,10 @@
+package io.buybrain.util.function;
+
+@FunctionalInterface
+public interface ThrowingDoubleFunction<R> {
+    R apply(double value) throws Throwable;
+
+    default ThrowingSupplier<R> bind(double val) {
+        return () -> this.apply(val);
+    }
+}
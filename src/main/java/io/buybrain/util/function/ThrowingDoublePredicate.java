@@ -0,0 +1,6 @@
+package io.buybrain.util.function;
+
+@FunctionalInterface
+public interface ThrowingDoublePredicate {
+    boolean test(double value) throws Throwable;
+}
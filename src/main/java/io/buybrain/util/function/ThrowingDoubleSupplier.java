@@ -0,0 +1,6 @@
+package io.buybrain.util.function;
+
+@FunctionalInterface
+public interface ThrowingDoubleSupplier {
+    double getAsDouble() throws Throwable;
+}
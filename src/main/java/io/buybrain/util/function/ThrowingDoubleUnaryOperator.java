@@ -0,0 +1,10 @@
+package io.buybrain.util.function;
+
+@FunctionalInterface
+public interface ThrowingDoubleUnaryOperator {
+    double applyAsDouble(double operand) throws Throwable;
+
+    default ThrowingDoubleSupplier bind(double val) {
+        return () -> this.applyAsDouble(val);
+    }
+}
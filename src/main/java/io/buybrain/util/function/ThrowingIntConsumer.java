@@ -0,0 +1,10 @@
+package io.buybrain.util.function;
+
+@FunctionalInterface
+public interface ThrowingIntConsumer {
+    void accept(int value) throws Throwable;
+
+    default ThrowingRunnable bind(int val) {
+        return () -> this.accept(val);
+    }
+}
@@ -0,0 +1,10 @@
+package io.buybrain.util.function;
+
+@FunctionalInterface
+public interface ThrowingIntFunction<R> {
+    R apply(int value) throws Throwable;
+
+    default ThrowingSupplier<R> bind(int val) {
+        return () -> this.apply(val);
+    }
+}
@@ -0,0 +1,6 @@
+package io.buybrain.util.function;
+
+@FunctionalInterface
+public interface ThrowingIntPredicate {
+    boolean test(int value) throws Throwable;
+}
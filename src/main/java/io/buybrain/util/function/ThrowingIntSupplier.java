@@ -0,0 +1,6 @@
+package io.buybrain.util.function;
+
+@FunctionalInterface
+public interface ThrowingIntSupplier {
+    int getAsInt() throws Throwable;
+}
@@ -0,0 +1,10 @@
+package io.buybrain.util.function;
+
+@FunctionalInterface
+public interface ThrowingIntUnaryOperator {
+    int applyAsInt(int operand) throws Throwable;
+
+    default ThrowingIntSupplier bind(int val) {
+        return () -> this.applyAsInt(val);
+    }
+}
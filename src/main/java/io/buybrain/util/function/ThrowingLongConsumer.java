@@ -0,0 +1,10 @@
+package io.buybrain.util.function;
+
+@FunctionalInterface
+public interface ThrowingLongConsumer {
+    void accept(long value) throws Throwable;
+
+    default ThrowingRunnable bind(long val) {
+        return () -> this.accept(val);
+    }
+}
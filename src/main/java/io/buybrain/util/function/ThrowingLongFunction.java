@@ -0,0 +1,10 @@
+package io.buybrain.util.function;
+
+@FunctionalInterface
+public interface ThrowingLongFunction<R> {
+    R apply(long value) throws Throwable;
+
+    default ThrowingSupplier<R> bind(long val) {
+        return () -> this.apply(val);
+    }
+}
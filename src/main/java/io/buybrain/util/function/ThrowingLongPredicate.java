@@ -0,0 +1,6 @@
+package io.buybrain.util.function;
+
+@FunctionalInterface
+public interface ThrowingLongPredicate {
+    boolean test(long value) throws Throwable;
+}
@@ -0,0 +1,10 @@
+package io.buybrain.util.function;
+
+@FunctionalInterface
+public interface ThrowingLongUnaryOperator {
+    long applyAsLong(long operand) throws Throwable;
+
+    default ThrowingLongSupplier bind(long val) {
+        return () -> this.applyAsLong(val);
+    }
+}
@@ -0,0 +1,10 @@
+package io.buybrain.util.function;
+
+@FunctionalInterface
+public interface ThrowingToDoubleFunction<T> {
+    double applyAsDouble(T t) throws Throwable;
+
+    default ThrowingDoubleSupplier bind(T val) {
+        return () -> this.applyAsDouble(val);
+    }
+}
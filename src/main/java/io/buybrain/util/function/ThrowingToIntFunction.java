@@ -0,0 +1,10 @@
+package io.buybrain.util.function;
+
+@FunctionalInterface
+public interface ThrowingToIntFunction<T> {
+    int applyAsInt(T t) throws Throwable;
+
+    default ThrowingIntSupplier bind(T val) {
+        return () -> this.applyAsInt(val);
+    }
+}
@@ -0,0 +1,10 @@
+package io.buybrain.util.function;
+
+@FunctionalInterface
+public interface ThrowingToLongFunction<T> {
+    long applyAsLong(T t) throws Throwable;
+
+    default ThrowingLongSupplier bind(T val) {
+        return () -> this.applyAsLong(val);
+    }
+}
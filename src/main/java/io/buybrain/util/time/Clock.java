@@ -5,9 +5,26 @@ import java.time.ZoneId;
 import java.time.ZonedDateTime;
 
 public interface Clock extends Sleeper {
+    ZoneId UTC = ZoneId.of("UTC");
+
     Instant now();
 
+    /**
+     * @return the current time in milliseconds since the epoch
+     */
+    default long nowMillis() {
+        return now().toEpochMilli();
+    }
+
+    /**
+     * @return the current time in nanoseconds since the epoch
+     */
+    default long nowNanos() {
+        Instant now = now();
+        return now.getEpochSecond() * 1_000_000_000L + now.getNano();
+    }
+
     default ZonedDateTime nowUtc() {
-        return now().atZone(ZoneId.of("UTC"));
+        return now().atZone(UTC);
     }
 }
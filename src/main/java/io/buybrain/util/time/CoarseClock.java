@@ -0,0 +1,104 @@
+package io.buybrain.util.time;
+
+import lombok.NonNull;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZonedDateTime;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Clock that trades precision for speed. A background daemon thread reads the system time once per configured
+ * resolution and publishes it; reading the time is then just a volatile read, and doesn't allocate.
+ *
+ * The ticker thread keeps running until {@link #close()} is called, so create one instance and share it.
+ */
+public class CoarseClock implements Clock, AutoCloseable {
+    private final long resolutionNanos;
+    private final Thread ticker;
+    private volatile Snapshot snapshot;
+    private volatile boolean closed = false;
+
+    /**
+     * Construct a CoarseClock with a resolution of 1 millisecond
+     */
+    public CoarseClock() {
+        this(Duration.ofMillis(1));
+    }
+
+    /**
+     * CoarseClock constructor
+     *
+     * @param resolution how often the time is refreshed
+     */
+    public CoarseClock(@NonNull Duration resolution) {
+        if (resolution.isNegative() || resolution.isZero()) {
+            throw new IllegalArgumentException("Resolution must be positive");
+        }
+        this.resolutionNanos = resolution.toNanos();
+        refresh();
+
+        ticker = new Thread(this::run, "coarse-clock");
+        ticker.setDaemon(true);
+        ticker.start();
+    }
+
+    @Override
+    public Instant now() {
+        return snapshot.instant;
+    }
+
+    @Override
+    public long nowMillis() {
+        return snapshot.millis;
+    }
+
+    @Override
+    public long nowNanos() {
+        return snapshot.nanos;
+    }
+
+    @Override
+    public ZonedDateTime nowUtc() {
+        return snapshot.utc;
+    }
+
+    @Override
+    public void sleep(@NonNull Duration duration) {
+        SystemClock.get().sleep(duration);
+    }
+
+    /**
+     * Stop the background ticker thread. The clock will keep returning the last time it read.
+     */
+    @Override
+    public void close() {
+        closed = true;
+        ticker.interrupt();
+    }
+
+    private void run() {
+        while (!closed) {
+            LockSupport.parkNanos(resolutionNanos);
+            refresh();
+        }
+    }
+
+    private void refresh() {
+        snapshot = new Snapshot(Instant.now());
+    }
+
+    private static class Snapshot {
+        private final Instant instant;
+        private final long millis;
+        private final long nanos;
+        private final ZonedDateTime utc;
+
+        Snapshot(Instant instant) {
+            this.instant = instant;
+            this.millis = instant.toEpochMilli();
+            this.nanos = instant.getEpochSecond() * 1_000_000_000L + instant.getNano();
+            this.utc = instant.atZone(UTC);
+        }
+    }
+}
@@ -0,0 +1,249 @@
+package io.buybrain.util.time;
+
+import lombok.NonNull;
+
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.charset.StandardCharsets;
+import java.time.DateTimeException;
+import java.time.Instant;
+import java.time.ZoneId;
+import java.time.ZonedDateTime;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+
+/**
+ * Periods encoded by {@link PeriodCodec}, decoded lazily straight from the underlying buffer. Iterating creates
+ * {@link Period} objects one at a time; a {@link Cursor} reads the periods as primitives without creating any
+ * objects at all.
+ *
+ * Instances are immutable and can be shared between threads, but each cursor and iterator should be used by a single
+ * thread.
+ */
+public class EncodedPeriods implements Iterable<Period> {
+    private static final int INDEX_ENTRY_SIZE = 12;
+
+    private final ByteBuffer buffer;
+    private final int size;
+    private final int blockSize;
+    private final ZoneId[] zones;
+    private final int indexOffset;
+    private final int dataOffset;
+
+    EncodedPeriods(ByteBuffer buffer) {
+        this.buffer = buffer.order(ByteOrder.BIG_ENDIAN);
+        try {
+            if (buffer.getInt(0) != PeriodCodec.MAGIC) {
+                throw new IllegalArgumentException("Buffer does not contain encoded periods");
+            }
+            Cursor header = new Cursor(4, 0, 0);
+            // Every period takes at least 3 bytes, and every zone at least 2
+            size = header.readLength(buffer.limit() / 3, "period count");
+            blockSize = header.readLength(Integer.MAX_VALUE, "block size");
+            if (blockSize < 1) {
+                throw new IllegalArgumentException("Encoded periods have an invalid block size");
+            }
+            zones = new ZoneId[header.readLength(buffer.limit() / 2, "zone count")];
+            for (int i = 0; i < zones.length; i++) {
+                byte[] id = new byte[header.readLength(buffer.limit() - header.position, "zone id length")];
+                for (int j = 0; j < id.length; j++) {
+                    id[j] = buffer.get(header.position++);
+                }
+                zones[i] = ZoneId.of(new String(id, StandardCharsets.UTF_8));
+            }
+            indexOffset = header.position;
+            long indexEnd = indexOffset + (long) blockCount() * INDEX_ENTRY_SIZE;
+            if (indexEnd > buffer.limit()) {
+                throw new IllegalArgumentException("Encoded periods are truncated");
+            }
+            dataOffset = (int) indexEnd;
+        } catch (IndexOutOfBoundsException | BufferUnderflowException ex) {
+            throw new IllegalArgumentException("Encoded periods are truncated", ex);
+        } catch (DateTimeException ex) {
+            throw new IllegalArgumentException("Encoded periods contain an invalid zone", ex);
+        }
+    }
+
+    /**
+     * @return the number of periods
+     */
+    public int size() {
+        return size;
+    }
+
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    /**
+     * @return a cursor positioned before the first period
+     */
+    public Cursor cursor() {
+        return new Cursor(dataOffset, 0, size);
+    }
+
+    /**
+     * Get a cursor that skips blocks of periods that all start before a given instant. This only works if the periods
+     * were sorted by start when encoded. Since whole blocks are skipped, the cursor may still return some periods that
+     * start before the instant. Periods in skipped blocks are never returned, even if they end after the instant.
+     *
+     * @param instant the instant
+     * @return a cursor positioned at the start of the block in which periods starting at the instant would be
+     */
+    public Cursor cursorAt(@NonNull Instant instant) {
+        if (size == 0) {
+            return cursor();
+        }
+        long millis = instant.toEpochMilli();
+        // Find the last block whose first period starts before the instant. Periods starting at the instant may also
+        // be at the end of that block, even if the next block starts with one as well.
+        int low = 0;
+        int high = blockCount() - 1;
+        int block = 0;
+        while (low <= high) {
+            int mid = (low + high) >>> 1;
+            if (buffer.getLong(indexOffset + mid * INDEX_ENTRY_SIZE) < millis) {
+                block = mid;
+                low = mid + 1;
+            } else {
+                high = mid - 1;
+            }
+        }
+        int offset = buffer.getInt(indexOffset + block * INDEX_ENTRY_SIZE + 8);
+        if (offset < 0 || offset > buffer.limit() - dataOffset) {
+            throw new IllegalArgumentException("Encoded periods have an invalid block index");
+        }
+        return new Cursor(dataOffset + offset, block * blockSize, size);
+    }
+
+    @Override
+    public Iterator<Period> iterator() {
+        Cursor cursor = cursor();
+        return new Iterator<Period>() {
+            private boolean advanced = false;
+            private boolean hasNext;
+
+            @Override
+            public boolean hasNext() {
+                if (!advanced) {
+                    hasNext = cursor.next();
+                    advanced = true;
+                }
+                return hasNext;
+            }
+
+            @Override
+            public Period next() {
+                if (!hasNext()) {
+                    throw new NoSuchElementException();
+                }
+                advanced = false;
+                return cursor.toPeriod();
+            }
+        };
+    }
+
+    private int blockCount() {
+        return (size + blockSize - 1) / blockSize;
+    }
+
+    /**
+     * Reads periods one at a time as primitives. Call {@link #next()} to move to the next period before reading it.
+     */
+    public class Cursor {
+        private int position;
+        private int index;
+        private final int end;
+        private long prevFrom = 0;
+        private long fromMillis;
+        private long toMillis;
+        private ZoneId zone;
+
+        private Cursor(int position, int index, int end) {
+            this.position = position;
+            this.index = index;
+            this.end = end;
+        }
+
+        /**
+         * Move to the next period
+         *
+         * @return true if there was a next period, false if the end was reached
+         */
+        public boolean next() {
+            if (index >= end) {
+                return false;
+            }
+            if (index % blockSize == 0) {
+                prevFrom = 0;
+            }
+            long zoneIndex;
+            try {
+                fromMillis = prevFrom + PeriodCodec.unzigzag(readVarLong());
+                toMillis = fromMillis + PeriodCodec.unzigzag(readVarLong());
+                zoneIndex = readVarLong();
+            } catch (IndexOutOfBoundsException ex) {
+                throw new IllegalArgumentException("Encoded periods are truncated", ex);
+            }
+            if (zoneIndex < 0 || zoneIndex >= zones.length) {
+                throw new IllegalArgumentException("Encoded periods refer to an unknown zone");
+            }
+            zone = zones[(int) zoneIndex];
+            prevFrom = fromMillis;
+            index++;
+            return true;
+        }
+
+        /**
+         * @return the start of the current period in epoch milliseconds
+         */
+        public long fromMillis() {
+            return fromMillis;
+        }
+
+        /**
+         * @return the end of the current period in epoch milliseconds
+         */
+        public long toMillis() {
+            return toMillis;
+        }
+
+        public ZoneId zone() {
+            return zone;
+        }
+
+        /**
+         * @return the current period as a Period object
+         */
+        public Period toPeriod() {
+            return new Period(
+                ZonedDateTime.ofInstant(Instant.ofEpochMilli(fromMillis), zone),
+                ZonedDateTime.ofInstant(Instant.ofEpochMilli(toMillis), zone)
+            );
+        }
+
+        /**
+         * Read a variable length integer that is used as a count or length, and check that it's plausible
+         */
+        private int readLength(int max, String what) {
+            long value = readVarLong();
+            if (value < 0 || value > max) {
+                throw new IllegalArgumentException("Encoded periods have an invalid " + what + ": " + value);
+            }
+            return (int) value;
+        }
+
+        private long readVarLong() {
+            long result = 0;
+            for (int shift = 0; shift < 64; shift += 7) {
+                byte b = buffer.get(position++);
+                result |= (long) (b & 0x7F) << shift;
+                if ((b & 0x80) == 0) {
+                    return result;
+                }
+            }
+            throw new IllegalArgumentException("Malformed variable length integer in encoded periods");
+        }
+    }
+}
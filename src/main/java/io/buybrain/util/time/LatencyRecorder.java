@@ -0,0 +1,136 @@
+package io.buybrain.util.time;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Thread safe recorder for latency samples, such as durations measured with a {@link Stopwatch}. Samples are counted
+ * in logarithmic buckets with 8 sub-buckets per power of two, so percentiles are accurate to within 12.5%, while
+ * memory use is fixed and recording doesn't allocate.
+ */
+public class LatencyRecorder {
+    private static final int SUB_BUCKET_BITS = 3;
+    private static final int SUB_BUCKETS = 1 << SUB_BUCKET_BITS;
+    private static final int BUCKETS = (64 - SUB_BUCKET_BITS + 1) * SUB_BUCKETS;
+
+    private final AtomicLongArray counts = new AtomicLongArray(BUCKETS);
+    private final LongAdder count = new LongAdder();
+    private final LongAdder sum = new LongAdder();
+    private final AtomicLong min = new AtomicLong(Long.MAX_VALUE);
+    private final AtomicLong max = new AtomicLong(Long.MIN_VALUE);
+
+    /**
+     * Record a sample
+     *
+     * @param nanos the latency in nanoseconds, negative values are treated as 0
+     */
+    public void record(long nanos) {
+        long value = Math.max(0, nanos);
+        counts.incrementAndGet(bucketOf(value));
+        count.increment();
+        sum.add(value);
+        min.accumulateAndGet(value, Math::min);
+        max.accumulateAndGet(value, Math::max);
+    }
+
+    /**
+     * Record the elapsed time of a stopwatch
+     *
+     * @param stopwatch the stopwatch
+     */
+    public void record(Stopwatch stopwatch) {
+        record(stopwatch.elapsedNanos());
+    }
+
+    public long count() {
+        return count.sum();
+    }
+
+    /**
+     * @return the smallest sample in nanoseconds, or 0 if there are no samples
+     */
+    public long min() {
+        return count() == 0 ? 0 : min.get();
+    }
+
+    /**
+     * @return the largest sample in nanoseconds, or 0 if there are no samples
+     */
+    public long max() {
+        return count() == 0 ? 0 : max.get();
+    }
+
+    /**
+     * @return the mean of all samples in nanoseconds, or 0 if there are no samples
+     */
+    public double mean() {
+        long n = count();
+        return n == 0 ? 0 : (double) sum.sum() / n;
+    }
+
+    /**
+     * Estimate a percentile. The result is the upper bound of the bucket that holds the percentile, capped at the
+     * largest sample.
+     *
+     * @param percentile the percentile, between 0 and 100
+     * @return the estimated latency in nanoseconds, or 0 if there are no samples
+     */
+    public long percentile(double percentile) {
+        if (percentile < 0 || percentile > 100) {
+            throw new IllegalArgumentException("Percentile must be between 0 and 100");
+        }
+        long total = 0;
+        long[] snapshot = new long[BUCKETS];
+        for (int i = 0; i < BUCKETS; i++) {
+            snapshot[i] = counts.get(i);
+            total += snapshot[i];
+        }
+        if (total == 0) {
+            return 0;
+        }
+
+        long rank = Math.max(1, (long) Math.ceil(percentile / 100 * total));
+        long seen = 0;
+        for (int i = 0; i < BUCKETS; i++) {
+            seen += snapshot[i];
+            if (seen >= rank) {
+                return Math.min(upperBoundOf(i), max.get());
+            }
+        }
+        return max.get();
+    }
+
+    /**
+     * Clear all samples. Samples recorded concurrently with a reset may be partially lost.
+     */
+    public void reset() {
+        for (int i = 0; i < BUCKETS; i++) {
+            counts.set(i, 0);
+        }
+        count.reset();
+        sum.reset();
+        min.set(Long.MAX_VALUE);
+        max.set(Long.MIN_VALUE);
+    }
+
+    static int bucketOf(long value) {
+        if (value < SUB_BUCKETS) {
+            return (int) value;
+        }
+        int exponent = 63 - Long.numberOfLeadingZeros(value);
+        int sub = (int) (value >>> (exponent - SUB_BUCKET_BITS)) & (SUB_BUCKETS - 1);
+        return (exponent - SUB_BUCKET_BITS + 1) * SUB_BUCKETS + sub;
+    }
+
+    static long upperBoundOf(int bucket) {
+        if (bucket < SUB_BUCKETS) {
+            return bucket;
+        }
+        int exponent = bucket / SUB_BUCKETS + SUB_BUCKET_BITS - 1;
+        long sub = bucket % SUB_BUCKETS;
+        long lower = (SUB_BUCKETS + sub) << (exponent - SUB_BUCKET_BITS);
+        long width = 1L << (exponent - SUB_BUCKET_BITS);
+        return lower + width - 1;
+    }
+}
@@ -5,8 +5,12 @@ import lombok.NonNull;
 import java.time.Duration;
 import java.time.Instant;
 
-public class MockClock implements Clock {
-    private Instant time;
+/**
+ * Clock for tests where sleeping just moves time forward, without blocking. For tests with multiple threads that
+ * should wait for each other in virtual time, see {@link VirtualClock}.
+ */
+public class MockClock implements Clock, Ticker {
+    private volatile Instant time;
 
     public MockClock() {
         this(Instant.EPOCH);
@@ -21,7 +25,12 @@ public class MockClock implements Clock {
     }
 
     @Override
-    public void sleep(@NonNull Duration duration) {
+    public long nanoTime() {
+        return nowNanos();
+    }
+
+    @Override
+    public synchronized void sleep(@NonNull Duration duration) {
         time = time.plus(duration);
     }
 }
@@ -0,0 +1,559 @@
+package io.buybrain.util.time;
+
+import lombok.NonNull;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZoneId;
+import java.time.ZonedDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Immutable set of points in time at a fixed granularity, stored as a bitmap with one bit per time slot. Slots have a
+ * fixed length, such as a minute, and are counted from a fixed origin. Set operations are bitwise operations on whole
+ * words, which is much cheaper than sorting period boundaries when combining many calendars over a bounded horizon.
+ *
+ * Like roaring bitmaps, the slots are divided into chunks of 65536 slots, and chunks that are completely empty or
+ * completely full are not stored as bitmaps at all. Sparse calendars with long stretches of nothing or everything stay
+ * small that way, and operations skip those stretches chunk by chunk rather than word by word.
+ *
+ * Every bitmap covers a fixed horizon from an origin to an end, and can only be combined with bitmaps with the same
+ * origin, end and slot length. Periods are cut off at the origin and the end, so a period that is open ended in
+ * practice, say ending in the year 9999, doesn't make the bitmap grow beyond the horizon.
+ */
+public class PeriodBitmap {
+    private static final int CHUNK_BITS = 16;
+    private static final int CHUNK_SLOTS = 1 << CHUNK_BITS;
+    private static final int CHUNK_WORDS = CHUNK_SLOTS / 64;
+    // Shared by all chunks that have every slot set. Never modified.
+    private static final long[] FULL = new long[CHUNK_WORDS];
+
+    static {
+        Arrays.fill(FULL, -1L);
+    }
+
+    private final long originMillis;
+    private final long endMillis;
+    private final long slotMillis;
+    // Chunks in slot order, where null means no slot in the chunk is set. Never ends with null.
+    private final long[][] chunks;
+
+    private PeriodBitmap(long originMillis, long endMillis, long slotMillis, long[][] chunks) {
+        this.originMillis = originMillis;
+        this.endMillis = endMillis;
+        this.slotMillis = slotMillis;
+        int length = chunks.length;
+        while (length > 0 && chunks[length - 1] == null) {
+            length--;
+        }
+        this.chunks = length == chunks.length ? chunks : Arrays.copyOf(chunks, length);
+    }
+
+    /**
+     * Create an empty bitmap
+     *
+     * @param origin the start of the first slot
+     * @param end    the end of the horizon, which the last slot contains
+     * @param slot   the length of each slot
+     * @return the empty bitmap
+     * @throws IllegalArgumentException if the end is not after the origin, or the horizon has too many slots
+     */
+    public static PeriodBitmap empty(@NonNull Instant origin, @NonNull Instant end, @NonNull Duration slot) {
+        return new Builder(origin, end, slot).build();
+    }
+
+    /**
+     * Create a bitmap with every slot set that overlaps any of the given periods. Periods that don't start and end
+     * exactly on slot boundaries are widened to the slots they touch. Parts of periods outside the horizon are
+     * ignored.
+     *
+     * @param periods the periods, in any order
+     * @param origin  the start of the first slot
+     * @param end     the end of the horizon, which the last slot contains
+     * @param slot    the length of each slot
+     * @return the bitmap
+     * @throws IllegalArgumentException if the end is not after the origin, or the horizon has too many slots
+     */
+    public static PeriodBitmap of(
+        @NonNull List<Period> periods,
+        @NonNull Instant origin,
+        @NonNull Instant end,
+        @NonNull Duration slot
+    ) {
+        Builder builder = new Builder(origin, end, slot);
+        for (Period period : periods) {
+            builder.add(period.getFrom().toInstant().toEpochMilli(), period.getTo().toInstant().toEpochMilli());
+        }
+        return builder.build();
+    }
+
+    /**
+     * Create a bitmap with every slot set that overlaps the given set, see
+     * {@link #of(List, Instant, Instant, Duration)}
+     *
+     * @param periods the set of periods
+     * @param origin  the start of the first slot
+     * @param end     the end of the horizon, which the last slot contains
+     * @param slot    the length of each slot
+     * @return the bitmap
+     * @throws IllegalArgumentException if the end is not after the origin, or the horizon has too many slots
+     */
+    public static PeriodBitmap of(
+        @NonNull PeriodSet periods,
+        @NonNull Instant origin,
+        @NonNull Instant end,
+        @NonNull Duration slot
+    ) {
+        Builder builder = new Builder(origin, end, slot);
+        for (int i = 0; i < periods.size(); i++) {
+            builder.add(periods.fromAt(i), periods.toAt(i));
+        }
+        return builder.build();
+    }
+
+    /**
+     * Get the union of any number of bitmaps. Cheaper than combining them pairwise, since it only allocates the
+     * resulting chunks.
+     *
+     * @param bitmaps the bitmaps, which should all have the same origin and slot length
+     * @return the slots set in any of the bitmaps
+     * @throws IllegalArgumentException if there are no bitmaps
+     */
+    public static PeriodBitmap union(@NonNull List<PeriodBitmap> bitmaps) {
+        PeriodBitmap first = first(bitmaps);
+        int length = 0;
+        for (PeriodBitmap bitmap : bitmaps) {
+            first.checkCompatible(bitmap);
+            length = Math.max(length, bitmap.chunks.length);
+        }
+
+        long[][] result = new long[length][];
+        boolean[] owned = new boolean[length];
+        for (PeriodBitmap bitmap : bitmaps) {
+            for (int c = 0; c < bitmap.chunks.length; c++) {
+                long[] chunk = bitmap.chunks[c];
+                if (chunk == null || result[c] == FULL) {
+                    continue;
+                }
+                if (result[c] == null || chunk == FULL) {
+                    result[c] = chunk;
+                    owned[c] = false;
+                    continue;
+                }
+                if (!owned[c]) {
+                    result[c] = result[c].clone();
+                    owned[c] = true;
+                }
+                long[] words = result[c];
+                for (int i = 0; i < CHUNK_WORDS; i++) {
+                    words[i] |= chunk[i];
+                }
+            }
+        }
+        for (int c = 0; c < length; c++) {
+            if (owned[c]) {
+                result[c] = normalize(result[c]);
+            }
+        }
+        return new PeriodBitmap(first.originMillis, first.endMillis, first.slotMillis, result);
+    }
+
+    /**
+     * Get the intersection of any number of bitmaps. Cheaper than combining them pairwise, since it only allocates
+     * the resulting chunks.
+     *
+     * @param bitmaps the bitmaps, which should all have the same origin and slot length
+     * @return the slots set in all of the bitmaps
+     * @throws IllegalArgumentException if there are no bitmaps
+     */
+    public static PeriodBitmap intersection(@NonNull List<PeriodBitmap> bitmaps) {
+        PeriodBitmap first = first(bitmaps);
+        int length = Integer.MAX_VALUE;
+        for (PeriodBitmap bitmap : bitmaps) {
+            first.checkCompatible(bitmap);
+            length = Math.min(length, bitmap.chunks.length);
+        }
+
+        long[][] result = Arrays.copyOf(first.chunks, length);
+        boolean[] owned = new boolean[length];
+        for (PeriodBitmap bitmap : bitmaps.subList(1, bitmaps.size())) {
+            for (int c = 0; c < length; c++) {
+                long[] chunk = bitmap.chunks[c];
+                if (result[c] == null || chunk == FULL) {
+                    continue;
+                }
+                if (chunk == null || result[c] == FULL) {
+                    result[c] = chunk;
+                    owned[c] = false;
+                    continue;
+                }
+                if (!owned[c]) {
+                    result[c] = result[c].clone();
+                    owned[c] = true;
+                }
+                long[] words = result[c];
+                for (int i = 0; i < CHUNK_WORDS; i++) {
+                    words[i] &= chunk[i];
+                }
+            }
+        }
+        for (int c = 0; c < length; c++) {
+            if (owned[c]) {
+                result[c] = normalize(result[c]);
+            }
+        }
+        return new PeriodBitmap(first.originMillis, first.endMillis, first.slotMillis, result);
+    }
+
+    /**
+     * Get the slots set in this bitmap, the other bitmap, or both
+     *
+     * @param other the other bitmap, with the same origin and slot length
+     * @return the union
+     */
+    public PeriodBitmap or(@NonNull PeriodBitmap other) {
+        checkCompatible(other);
+        long[][] result = new long[Math.max(chunks.length, other.chunks.length)][];
+        for (int c = 0; c < result.length; c++) {
+            long[] a = c < chunks.length ? chunks[c] : null;
+            long[] b = c < other.chunks.length ? other.chunks[c] : null;
+            if (a == null || b == FULL) {
+                result[c] = b;
+            } else if (b == null || a == FULL) {
+                result[c] = a;
+            } else {
+                long[] words = new long[CHUNK_WORDS];
+                for (int i = 0; i < CHUNK_WORDS; i++) {
+                    words[i] = a[i] | b[i];
+                }
+                result[c] = normalize(words);
+            }
+        }
+        return new PeriodBitmap(originMillis, endMillis, slotMillis, result);
+    }
+
+    /**
+     * Get the slots set in both this bitmap and the other bitmap
+     *
+     * @param other the other bitmap, with the same origin and slot length
+     * @return the intersection
+     */
+    public PeriodBitmap and(@NonNull PeriodBitmap other) {
+        checkCompatible(other);
+        long[][] result = new long[Math.min(chunks.length, other.chunks.length)][];
+        for (int c = 0; c < result.length; c++) {
+            long[] a = chunks[c];
+            long[] b = other.chunks[c];
+            if (a == null || b == FULL) {
+                result[c] = a;
+            } else if (b == null || a == FULL) {
+                result[c] = b;
+            } else {
+                long[] words = new long[CHUNK_WORDS];
+                for (int i = 0; i < CHUNK_WORDS; i++) {
+                    words[i] = a[i] & b[i];
+                }
+                result[c] = normalize(words);
+            }
+        }
+        return new PeriodBitmap(originMillis, endMillis, slotMillis, result);
+    }
+
+    /**
+     * Get the slots set in this bitmap but not in the other bitmap
+     *
+     * @param other the other bitmap, with the same origin and slot length
+     * @return the difference
+     */
+    public PeriodBitmap andNot(@NonNull PeriodBitmap other) {
+        checkCompatible(other);
+        long[][] result = new long[chunks.length][];
+        for (int c = 0; c < result.length; c++) {
+            long[] a = chunks[c];
+            long[] b = c < other.chunks.length ? other.chunks[c] : null;
+            if (a == null || b == null) {
+                result[c] = a;
+            } else if (b != FULL) {
+                long[] words = new long[CHUNK_WORDS];
+                for (int i = 0; i < CHUNK_WORDS; i++) {
+                    words[i] = a[i] & ~b[i];
+                }
+                result[c] = normalize(words);
+            }
+        }
+        return new PeriodBitmap(originMillis, endMillis, slotMillis, result);
+    }
+
+    /**
+     * Check whether the slot containing a point in time is set
+     *
+     * @param instant the point in time
+     * @return true if the slot is set
+     */
+    public boolean contains(@NonNull Instant instant) {
+        long slot = Math.floorDiv(instant.toEpochMilli() - originMillis, slotMillis);
+        if (slot < 0 || (slot >>> CHUNK_BITS) >= chunks.length) {
+            return false;
+        }
+        long[] chunk = chunks[(int) (slot >>> CHUNK_BITS)];
+        if (chunk == null) {
+            return false;
+        }
+        int bit = (int) (slot & (CHUNK_SLOTS - 1));
+        return (chunk[bit >>> 6] & (1L << bit)) != 0;
+    }
+
+    /**
+     * @return the number of slots that are set
+     */
+    public long cardinality() {
+        long result = 0;
+        for (long[] chunk : chunks) {
+            if (chunk == FULL) {
+                result += CHUNK_SLOTS;
+            } else if (chunk != null) {
+                for (long word : chunk) {
+                    result += Long.bitCount(word);
+                }
+            }
+        }
+        return result;
+    }
+
+    public boolean isEmpty() {
+        return chunks.length == 0;
+    }
+
+    public Instant getOrigin() {
+        return Instant.ofEpochMilli(originMillis);
+    }
+
+    public Instant getEnd() {
+        return Instant.ofEpochMilli(endMillis);
+    }
+
+    public Duration getSlot() {
+        return Duration.ofMillis(slotMillis);
+    }
+
+    /**
+     * Convert the bitmap back to periods, where every run of consecutive set slots becomes one period
+     *
+     * @param zone the time zone of the periods
+     * @return the periods, sorted ascending
+     */
+    public List<Period> toPeriods(@NonNull ZoneId zone) {
+        List<Period> result = new ArrayList<>();
+        forEachRun((from, to) -> result.add(new Period(
+            ZonedDateTime.ofInstant(Instant.ofEpochMilli(from), zone),
+            ZonedDateTime.ofInstant(Instant.ofEpochMilli(to), zone)
+        )));
+        return result;
+    }
+
+    /**
+     * Convert the bitmap to a set of periods
+     *
+     * @return the set
+     */
+    public PeriodSet toPeriodSet() {
+        PeriodSet.Builder builder = new PeriodSet.Builder(16);
+        forEachRun(builder::add);
+        return builder.build();
+    }
+
+    @Override
+    public boolean equals(Object obj) {
+        if (this == obj) {
+            return true;
+        }
+        if (!(obj instanceof PeriodBitmap)) {
+            return false;
+        }
+        PeriodBitmap other = (PeriodBitmap) obj;
+        return originMillis == other.originMillis
+            && endMillis == other.endMillis
+            && slotMillis == other.slotMillis
+            && Arrays.deepEquals(chunks, other.chunks);
+    }
+
+    @Override
+    public int hashCode() {
+        int result = Long.hashCode(originMillis);
+        result = 31 * result + Long.hashCode(endMillis);
+        result = 31 * result + Long.hashCode(slotMillis);
+        return 31 * result + Arrays.deepHashCode(chunks);
+    }
+
+    /**
+     * Call a consumer for every run of consecutive set slots, with its start and end in epoch milliseconds
+     */
+    private void forEachRun(RunConsumer consumer) {
+        long runStart = -1;
+        for (int c = 0; c < chunks.length; c++) {
+            long[] chunk = chunks[c];
+            long chunkBase = (long) c << CHUNK_BITS;
+            if (chunk == null) {
+                if (runStart >= 0) {
+                    consumer.accept(toMillis(runStart), toMillis(chunkBase));
+                    runStart = -1;
+                }
+                continue;
+            }
+            if (chunk == FULL) {
+                if (runStart < 0) {
+                    runStart = chunkBase;
+                }
+                continue;
+            }
+            for (int i = 0; i < CHUNK_WORDS; i++) {
+                long word = chunk[i];
+                long base = chunkBase + i * 64L;
+                int pos = 0;
+                // Alternate between looking for the next set bit and the next unset bit in this word
+                while (true) {
+                    long bits = runStart < 0 ? word & (-1L << pos) : ~word & (-1L << pos);
+                    if (bits == 0) {
+                        break;
+                    }
+                    pos = Long.numberOfTrailingZeros(bits);
+                    if (runStart < 0) {
+                        runStart = base + pos;
+                    } else {
+                        consumer.accept(toMillis(runStart), toMillis(base + pos));
+                        runStart = -1;
+                    }
+                }
+            }
+        }
+        if (runStart >= 0) {
+            consumer.accept(toMillis(runStart), toMillis((long) chunks.length << CHUNK_BITS));
+        }
+    }
+
+    private long toMillis(long slot) {
+        return originMillis + slot * slotMillis;
+    }
+
+    private void checkCompatible(PeriodBitmap other) {
+        if (originMillis != other.originMillis || endMillis != other.endMillis || slotMillis != other.slotMillis) {
+            throw new IllegalArgumentException("Bitmaps with different horizons or slot lengths can't be combined");
+        }
+    }
+
+    private static PeriodBitmap first(List<PeriodBitmap> bitmaps) {
+        if (bitmaps.isEmpty()) {
+            throw new IllegalArgumentException("At least one bitmap is required");
+        }
+        return bitmaps.get(0);
+    }
+
+    /**
+     * Replace chunks without any set slots by null, and chunks with all slots set by the shared full chunk
+     */
+    private static long[] normalize(long[] chunk) {
+        long or = 0;
+        long and = -1L;
+        for (long word : chunk) {
+            or |= word;
+            and &= word;
+        }
+        if (or == 0) {
+            return null;
+        }
+        return and == -1L ? FULL : chunk;
+    }
+
+    private interface RunConsumer {
+        void accept(long fromMillis, long toMillis);
+    }
+
+    private static class Builder {
+        private final long originMillis;
+        private final long endMillis;
+        private final long slotMillis;
+        // The number of slots and chunks in the horizon
+        private final long slotCount;
+        private final int chunkCount;
+        private long[][] chunks = new long[0][];
+
+        Builder(Instant origin, Instant end, Duration slot) {
+            if (!end.isAfter(origin)) {
+                throw new IllegalArgumentException("The end of a bitmap must be after its origin");
+            }
+            originMillis = origin.toEpochMilli();
+            endMillis = end.toEpochMilli();
+            slotMillis = slot.toMillis();
+            if (slotMillis < 1) {
+                throw new IllegalArgumentException("Slot length must be at least 1 millisecond");
+            }
+            long horizon;
+            try {
+                horizon = Math.subtractExact(endMillis, originMillis);
+            } catch (ArithmeticException ex) {
+                throw new IllegalArgumentException("The horizon of a bitmap is too long", ex);
+            }
+            slotCount = -Math.floorDiv(-horizon, slotMillis);
+            if (((slotCount - 1) >>> CHUNK_BITS) >= Integer.MAX_VALUE) {
+                throw new IllegalArgumentException("The horizon of a bitmap can't have more than "
+                    + Integer.MAX_VALUE + " chunks of " + CHUNK_SLOTS + " slots");
+            }
+            chunkCount = (int) ((slotCount - 1) >>> CHUNK_BITS) + 1;
+        }
+
+        void add(long fromMillis, long toMillis) {
+            // Widen to whole slots, and cut off anything outside the horizon
+            long from = Math.max(0, Math.floorDiv(fromMillis - originMillis, slotMillis));
+            long to = Math.min(slotCount, -Math.floorDiv(originMillis - toMillis, slotMillis));
+            while (from < to) {
+                int c = (int) (from >>> CHUNK_BITS);
+                long chunkBase = (long) c << CHUNK_BITS;
+                long end = Math.min(to, chunkBase + CHUNK_SLOTS);
+                if (c >= chunks.length) {
+                    chunks = Arrays.copyOf(chunks, Math.max(c + 1, (int) Math.min(chunkCount, chunks.length * 2L)));
+                }
+                long[] chunk = chunks[c];
+                int fromBit = (int) (from - chunkBase);
+                int toBit = (int) (end - chunkBase);
+                if (fromBit == 0 && toBit == CHUNK_SLOTS) {
+                    chunks[c] = FULL;
+                } else if (chunk != FULL) {
+                    if (chunk == null) {
+                        chunk = new long[CHUNK_WORDS];
+                        chunks[c] = chunk;
+                    }
+                    setBits(chunk, fromBit, toBit);
+                }
+                from = end;
+            }
+        }
+
+        PeriodBitmap build() {
+            for (int c = 0; c < chunks.length; c++) {
+                if (chunks[c] != null && chunks[c] != FULL) {
+                    chunks[c] = normalize(chunks[c]);
+                }
+            }
+            return new PeriodBitmap(originMillis, endMillis, slotMillis, chunks);
+        }
+
+        private static void setBits(long[] words, int from, int to) {
+            int firstWord = from >>> 6;
+            int lastWord = (to - 1) >>> 6;
+            long firstMask = -1L << from;
+            // Shifts only use the lowest 6 bits, so this keeps the bits below to within the last word
+            long lastMask = -1L >>> -to;
+            if (firstWord == lastWord) {
+                words[firstWord] |= firstMask & lastMask;
+                return;
+            }
+            words[firstWord] |= firstMask;
+            for (int i = firstWord + 1; i < lastWord; i++) {
+                words[i] = -1L;
+            }
+            words[lastWord] |= lastMask;
+        }
+    }
+}
@@ -0,0 +1,129 @@
+package io.buybrain.util.time;
+
+import lombok.NonNull;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZoneId;
+import java.time.ZonedDateTime;
+import java.util.Arrays;
+
+/**
+ * Consecutive time buckets, such as hours or days, with the amount of time covered by periods in each bucket.
+ * Created by {@link Periods#bucket(java.util.List, java.time.temporal.TemporalUnit, ZoneId)}.
+ *
+ * Bucket boundaries follow the calendar of the time zone, so buckets don't necessarily have the same length. A day
+ * with a daylight saving time transition, for example, may be 23 or 25 hours long.
+ */
+public class PeriodBuckets {
+    private final ZoneId zone;
+    // Epoch milliseconds where each bucket starts, followed by where the last one ends
+    private final long[] boundaries;
+    private final long[] coveredMillis;
+
+    PeriodBuckets(@NonNull ZoneId zone, long[] boundaries, long[] coveredMillis) {
+        this.zone = zone;
+        this.boundaries = boundaries;
+        this.coveredMillis = coveredMillis;
+    }
+
+    /**
+     * @return the number of buckets
+     */
+    public int size() {
+        return coveredMillis.length;
+    }
+
+    public ZoneId getZone() {
+        return zone;
+    }
+
+    /**
+     * Get the start of a bucket
+     *
+     * @param index the index of the bucket
+     * @return the start in the time zone of the buckets, inclusive
+     */
+    public ZonedDateTime getStart(int index) {
+        checkIndex(index);
+        return ZonedDateTime.ofInstant(Instant.ofEpochMilli(boundaries[index]), zone);
+    }
+
+    /**
+     * Get the end of a bucket
+     *
+     * @param index the index of the bucket
+     * @return the end in the time zone of the buckets, exclusive
+     */
+    public ZonedDateTime getEnd(int index) {
+        checkIndex(index);
+        return ZonedDateTime.ofInstant(Instant.ofEpochMilli(boundaries[index + 1]), zone);
+    }
+
+    /**
+     * Get the amount of time covered by periods in a bucket
+     *
+     * @param index the index of the bucket
+     * @return the covered time in milliseconds
+     */
+    public long getCoveredMillis(int index) {
+        checkIndex(index);
+        return coveredMillis[index];
+    }
+
+    public Duration getCovered(int index) {
+        return Duration.ofMillis(getCoveredMillis(index));
+    }
+
+    /**
+     * @return a copy of the covered time in milliseconds of every bucket
+     */
+    public long[] coveredMillis() {
+        return coveredMillis.clone();
+    }
+
+    /**
+     * @return a copy of the bucket boundaries in epoch milliseconds, which has one more element than there are
+     * buckets since it ends with the end of the last bucket
+     */
+    public long[] boundaries() {
+        return boundaries.clone();
+    }
+
+    @Override
+    public String toString() {
+        StringBuilder result = new StringBuilder("PeriodBuckets(");
+        for (int i = 0; i < size(); i++) {
+            if (i > 0) {
+                result.append(", ");
+            }
+            result.append(getStart(i)).append('=').append(getCovered(i));
+        }
+        return result.append(')').toString();
+    }
+
+    @Override
+    public boolean equals(Object obj) {
+        if (this == obj) {
+            return true;
+        }
+        if (!(obj instanceof PeriodBuckets)) {
+            return false;
+        }
+        PeriodBuckets other = (PeriodBuckets) obj;
+        return zone.equals(other.zone)
+            && Arrays.equals(boundaries, other.boundaries)
+            && Arrays.equals(coveredMillis, other.coveredMillis);
+    }
+
+    @Override
+    public int hashCode() {
+        return 31 * (31 * zone.hashCode() + Arrays.hashCode(boundaries)) + Arrays.hashCode(coveredMillis);
+    }
+
+    private void checkIndex(int index) {
+        if (index < 0 || index >= coveredMillis.length) {
+            throw new IndexOutOfBoundsException("Bucket " + index + " out of range [0, " + size() + ")");
+        }
+    }
+}
@@ -0,0 +1,166 @@
+package io.buybrain.util.time;
+
+import lombok.NonNull;
+import lombok.SneakyThrows;
+
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Compact binary encoding for lists of periods, as an alternative to text formats that spell out every date.
+ *
+ * Periods are stored as epoch milliseconds in blocks of a fixed number of periods. Within a block, each start is
+ * stored as the difference with the previous start and each end as the length of the period, both as variable length
+ * integers. For sorted lists, that usually takes well under the 16 bytes two raw longs would. Time zones are stored
+ * once in a table, and periods refer to them by index. The start of every block is recorded in an index, so decoding
+ * can skip to the blocks containing a given instant without reading the ones before.
+ *
+ * The layout is:
+ * <pre>
+ * int     magic
+ * varint  period count
+ * varint  block size
+ * varint  zone count, followed by each zone id as a varint length and UTF-8 bytes
+ * block index: per block a long with the start of its first period and an int with its offset in the data
+ * data: per period a zigzag varint start delta, zigzag varint length and varint zone index
+ * </pre>
+ *
+ * Since only epoch milliseconds are stored, sub-millisecond precision is lost. Only the zone of the start of each
+ * period is stored, and used for both its start and end when decoding.
+ */
+public class PeriodCodec {
+    static final int MAGIC = 0x50524431;
+    static final int DEFAULT_BLOCK_SIZE = 256;
+
+    /**
+     * Encode a list of periods with the default block size
+     *
+     * @param periods the periods, in any order, though sorted lists encode smaller and can be searched by time
+     * @return the encoded periods
+     */
+    public static byte[] encode(@NonNull List<Period> periods) {
+        return encode(periods, DEFAULT_BLOCK_SIZE);
+    }
+
+    /**
+     * Encode a set of periods with the default block size
+     *
+     * @param periods the periods
+     * @param zone    the time zone to store with every period
+     * @return the encoded periods
+     */
+    public static byte[] encode(@NonNull PeriodSet periods, @NonNull ZoneId zone) {
+        return encode(periods.toPeriods(zone));
+    }
+
+    /**
+     * Encode a list of periods
+     *
+     * @param periods   the periods, in any order, though sorted lists encode smaller and can be searched by time
+     * @param blockSize the number of periods per block. Smaller blocks make seeking faster, but the index larger.
+     * @return the encoded periods
+     */
+    @SneakyThrows
+    public static byte[] encode(@NonNull List<Period> periods, int blockSize) {
+        if (blockSize < 1) {
+            throw new IllegalArgumentException("Block size must be at least 1");
+        }
+
+        Map<ZoneId, Integer> zoneIndexes = new HashMap<>();
+        List<ZoneId> zones = new ArrayList<>();
+        ByteArrayOutputStream data = new ByteArrayOutputStream(periods.size() * 4);
+        int blockCount = (periods.size() + blockSize - 1) / blockSize;
+        long[] blockStarts = new long[blockCount];
+        int[] blockOffsets = new int[blockCount];
+
+        long prevFrom = 0;
+        for (int i = 0; i < periods.size(); i++) {
+            Period period = periods.get(i);
+            long from = period.getFrom().toInstant().toEpochMilli();
+            long to = period.getTo().toInstant().toEpochMilli();
+            if (i % blockSize == 0) {
+                // Blocks are decoded independently, so the first start of each block is stored in full
+                blockStarts[i / blockSize] = from;
+                blockOffsets[i / blockSize] = data.size();
+                prevFrom = 0;
+            }
+            Integer zoneIndex = zoneIndexes.get(period.getFrom().getZone());
+            if (zoneIndex == null) {
+                zoneIndex = zones.size();
+                zones.add(period.getFrom().getZone());
+                zoneIndexes.put(period.getFrom().getZone(), zoneIndex);
+            }
+
+            writeVarLong(data, zigzag(from - prevFrom));
+            writeVarLong(data, zigzag(to - from));
+            writeVarLong(data, zoneIndex);
+            prevFrom = from;
+        }
+
+        ByteArrayOutputStream result = new ByteArrayOutputStream(data.size() + blockCount * 12 + 64);
+        DataOutputStream out = new DataOutputStream(result);
+        out.writeInt(MAGIC);
+        writeVarLong(result, periods.size());
+        writeVarLong(result, blockSize);
+        writeVarLong(result, zones.size());
+        for (ZoneId zone : zones) {
+            byte[] id = zone.getId().getBytes(StandardCharsets.UTF_8);
+            writeVarLong(result, id.length);
+            result.write(id);
+        }
+        for (int i = 0; i < blockCount; i++) {
+            out.writeLong(blockStarts[i]);
+            out.writeInt(blockOffsets[i]);
+        }
+        data.writeTo(result);
+        return result.toByteArray();
+    }
+
+    /**
+     * Decode periods from a buffer, without copying it. Only the header is read right away; periods are decoded
+     * while iterating. The buffer's position and limit are not changed, and it should not be modified while the
+     * result is in use.
+     *
+     * @param buffer the buffer, for example a memory mapped file, with the encoded periods between its position and
+     *               limit
+     * @return the encoded periods
+     * @throws IllegalArgumentException if the buffer doesn't contain encoded periods
+     */
+    public static EncodedPeriods decode(@NonNull ByteBuffer buffer) {
+        return new EncodedPeriods(buffer.slice());
+    }
+
+    /**
+     * Decode periods from a byte array, without copying it
+     *
+     * @param bytes the encoded periods
+     * @return the encoded periods
+     * @throws IllegalArgumentException if the array doesn't contain encoded periods
+     */
+    public static EncodedPeriods decode(@NonNull byte[] bytes) {
+        return decode(ByteBuffer.wrap(bytes));
+    }
+
+    static long zigzag(long value) {
+        return (value << 1) ^ (value >> 63);
+    }
+
+    static long unzigzag(long value) {
+        return (value >>> 1) ^ -(value & 1);
+    }
+
+    private static void writeVarLong(ByteArrayOutputStream out, long value) {
+        while ((value & ~0x7FL) != 0) {
+            out.write((int) ((value & 0x7F) | 0x80));
+            value >>>= 7;
+        }
+        out.write((int) value);
+    }
+}
@@ -0,0 +1,332 @@
+package io.buybrain.util.time;
+
+import lombok.NonNull;
+import lombok.Value;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Objects;
+
+/**
+ * Index of periods with an associated value, answering which periods contain a point in time or overlap another
+ * period without scanning all of them.
+ *
+ * Implemented as an interval tree: an AVL tree ordered by period start, where every node also knows the latest end
+ * in its subtree. Insertion and removal take O(log n). Queries take O(log n) plus time proportional to the number of
+ * results, since subtrees that end too early or start too late are skipped as a whole.
+ *
+ * Periods are treated as half-open, so a period contains its start but not its end. Comparisons are done on instants,
+ * so any period can be indexed with full nanosecond precision. This class is not thread safe.
+ *
+ * @param <V> the value type
+ */
+public class PeriodIndex<V> {
+    private Node<V> root;
+    private int size = 0;
+    private long nextSeq = 0;
+
+    /**
+     * Construct an empty index
+     */
+    public PeriodIndex() {
+    }
+
+    /**
+     * Build an index from a list of entries in one go, which is faster than inserting them one by one. If the entries
+     * are already sorted by period start, this takes linear time.
+     *
+     * @param entries the entries
+     * @return the index
+     */
+    public static <V> PeriodIndex<V> of(@NonNull List<Entry<V>> entries) {
+        List<Node<V>> nodes = new ArrayList<>(entries.size());
+        boolean sorted = true;
+        for (Entry<V> entry : entries) {
+            Node<V> node = new Node<>(entry, nodes.size());
+            if (!nodes.isEmpty() && compare(nodes.get(nodes.size() - 1), node.from, node.to, node.seq) > 0) {
+                sorted = false;
+            }
+            nodes.add(node);
+        }
+        if (!sorted) {
+            nodes.sort((a, b) -> compare(a, b.from, b.to, b.seq));
+        }
+
+        PeriodIndex<V> index = new PeriodIndex<>();
+        index.root = build(nodes, 0, nodes.size());
+        index.size = nodes.size();
+        index.nextSeq = nodes.size();
+        return index;
+    }
+
+    /**
+     * Add a period to the index. The same period may be added multiple times, even with the same value.
+     *
+     * @param period the period
+     * @param value  the value to associate with it
+     */
+    public void insert(@NonNull Period period, V value) {
+        root = insert(root, new Node<>(new Entry<>(period, value), nextSeq++));
+        size++;
+    }
+
+    /**
+     * Remove a period with the given value from the index. If it was added multiple times, only one is removed.
+     *
+     * @param period the period
+     * @param value  the associated value
+     * @return true if it was found and removed
+     */
+    public boolean remove(@NonNull Period period, V value) {
+        Node<V> node = find(root, period.getFrom().toInstant(), period.getTo().toInstant(), value);
+        if (node == null) {
+            return false;
+        }
+        root = remove(root, node);
+        size--;
+        return true;
+    }
+
+    /**
+     * Get all entries whose period contains a point in time
+     *
+     * @param instant the point in time
+     * @return the matching entries, ordered by period start
+     */
+    public List<Entry<V>> at(@NonNull Instant instant) {
+        // A period contains the instant if it overlaps the single nanosecond starting at it
+        List<Entry<V>> result = new ArrayList<>();
+        collect(root, instant, instant.plusNanos(1), result);
+        return result;
+    }
+
+    /**
+     * Get all entries whose period overlaps a window, which means they have at least one point in time in common
+     *
+     * @param window the window
+     * @return the matching entries, ordered by period start
+     */
+    public List<Entry<V>> overlapping(@NonNull Period window) {
+        return overlapping(window.getFrom().toInstant(), window.getTo().toInstant());
+    }
+
+    /**
+     * Get all entries whose period overlaps a window, which means they have at least one point in time in common
+     *
+     * @param from the start of the window, inclusive
+     * @param to   the end of the window, exclusive
+     * @return the matching entries, ordered by period start
+     */
+    public List<Entry<V>> overlapping(@NonNull Instant from, @NonNull Instant to) {
+        List<Entry<V>> result = new ArrayList<>();
+        if (from.isBefore(to)) {
+            collect(root, from, to, result);
+        }
+        return result;
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    /**
+     * @return all entries, ordered by period start
+     */
+    public List<Entry<V>> entries() {
+        List<Entry<V>> result = new ArrayList<>(size);
+        collectAll(root, result);
+        return result;
+    }
+
+    private static <V> void collectAll(Node<V> node, List<Entry<V>> result) {
+        while (node != null) {
+            collectAll(node.left, result);
+            result.add(node.entry);
+            node = node.right;
+        }
+    }
+
+    private static <V> void collect(Node<V> node, Instant from, Instant to, List<Entry<V>> result) {
+        while (node != null) {
+            if (node.maxTo.compareTo(from) <= 0) {
+                // Everything in this subtree ends before the window starts
+                return;
+            }
+            collect(node.left, from, to, result);
+            if (node.from.compareTo(to) >= 0) {
+                // This node and everything to the right of it starts after the window ends
+                return;
+            }
+            if (node.to.isAfter(from) && node.from.isBefore(node.to)) {
+                result.add(node.entry);
+            }
+            node = node.right;
+        }
+    }
+
+    private static <V> Node<V> find(Node<V> node, Instant from, Instant to, V value) {
+        while (node != null) {
+            int cmp = compareKey(from, to, node.from, node.to);
+            if (cmp == 0) {
+                // Equal periods may be found on either side after rotations
+                if (Objects.equals(node.entry.value, value)) {
+                    return node;
+                }
+                Node<V> found = find(node.left, from, to, value);
+                return found != null ? found : find(node.right, from, to, value);
+            }
+            node = cmp < 0 ? node.left : node.right;
+        }
+        return null;
+    }
+
+    private static <V> Node<V> build(List<Node<V>> nodes, int from, int to) {
+        if (from >= to) {
+            return null;
+        }
+        int mid = (from + to) >>> 1;
+        Node<V> node = nodes.get(mid);
+        node.left = build(nodes, from, mid);
+        node.right = build(nodes, mid + 1, to);
+        update(node);
+        return node;
+    }
+
+    private static <V> Node<V> insert(Node<V> node, Node<V> added) {
+        if (node == null) {
+            return added;
+        }
+        if (compare(added, node.from, node.to, node.seq) < 0) {
+            node.left = insert(node.left, added);
+        } else {
+            node.right = insert(node.right, added);
+        }
+        return rebalance(node);
+    }
+
+    private static <V> Node<V> remove(Node<V> node, Node<V> removed) {
+        if (node == null) {
+            return null;
+        }
+        if (node != removed) {
+            if (compare(removed, node.from, node.to, node.seq) < 0) {
+                node.left = remove(node.left, removed);
+            } else {
+                node.right = remove(node.right, removed);
+            }
+            return rebalance(node);
+        }
+        if (node.left == null) {
+            return node.right;
+        }
+        if (node.right == null) {
+            return node.left;
+        }
+        // Replace the node by its successor
+        Node<V> successor = node.right;
+        while (successor.left != null) {
+            successor = successor.left;
+        }
+        successor.right = remove(node.right, successor);
+        successor.left = node.left;
+        return rebalance(successor);
+    }
+
+    private static <V> Node<V> rebalance(Node<V> node) {
+        update(node);
+        int balance = height(node.left) - height(node.right);
+        if (balance > 1) {
+            if (height(node.left.left) < height(node.left.right)) {
+                node.left = rotateLeft(node.left);
+            }
+            return rotateRight(node);
+        }
+        if (balance < -1) {
+            if (height(node.right.right) < height(node.right.left)) {
+                node.right = rotateRight(node.right);
+            }
+            return rotateLeft(node);
+        }
+        return node;
+    }
+
+    private static <V> Node<V> rotateLeft(Node<V> node) {
+        Node<V> pivot = node.right;
+        node.right = pivot.left;
+        pivot.left = node;
+        update(node);
+        update(pivot);
+        return pivot;
+    }
+
+    private static <V> Node<V> rotateRight(Node<V> node) {
+        Node<V> pivot = node.left;
+        node.left = pivot.right;
+        pivot.right = node;
+        update(node);
+        update(pivot);
+        return pivot;
+    }
+
+    private static void update(Node<?> node) {
+        node.height = 1 + Math.max(height(node.left), height(node.right));
+        Instant maxTo = node.to;
+        if (node.left != null && node.left.maxTo.isAfter(maxTo)) {
+            maxTo = node.left.maxTo;
+        }
+        if (node.right != null && node.right.maxTo.isAfter(maxTo)) {
+            maxTo = node.right.maxTo;
+        }
+        node.maxTo = maxTo;
+    }
+
+    private static int height(Node<?> node) {
+        return node == null ? 0 : node.height;
+    }
+
+    private static int compare(Node<?> node, Instant from, Instant to, long seq) {
+        int cmp = compareKey(node.from, node.to, from, to);
+        return cmp != 0 ? cmp : Long.compare(node.seq, seq);
+    }
+
+    private static int compareKey(Instant fromA, Instant toA, Instant fromB, Instant toB) {
+        int cmp = fromA.compareTo(fromB);
+        return cmp != 0 ? cmp : toA.compareTo(toB);
+    }
+
+    /**
+     * Period with its associated value
+     *
+     * @param <V> the value type
+     */
+    @Value
+    public static class Entry<V> {
+        @NonNull Period period;
+        V value;
+    }
+
+    private static class Node<V> {
+        private final Entry<V> entry;
+        private final Instant from;
+        private final Instant to;
+        // Tie breaker for equal periods, so every node has a unique position
+        private final long seq;
+        private Instant maxTo;
+        private int height = 1;
+        private Node<V> left;
+        private Node<V> right;
+
+        Node(Entry<V> entry, long seq) {
+            this.entry = entry;
+            this.from = entry.period.getFrom().toInstant();
+            this.to = entry.period.getTo().toInstant();
+            this.seq = seq;
+            this.maxTo = to;
+        }
+    }
+}
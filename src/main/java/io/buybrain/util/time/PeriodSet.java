@@ -0,0 +1,397 @@
+package io.buybrain.util.time;
+
+import lombok.NonNull;
+
+import java.time.Instant;
+import java.time.ZoneId;
+import java.time.ZonedDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Immutable set of points in time, stored as sorted epoch milliseconds rather than {@link Period} objects. Meant for
+ * large amounts of periods, where the operations in {@link Periods} use too much memory and time comparing
+ * ZonedDateTimes.
+ *
+ * The set is always normalized: it consists of non-empty, half-open intervals [from, to) that don't overlap or touch,
+ * in ascending order. This means overlapping and adjacent periods are merged as soon as the set is created, just like
+ * {@link Periods#merge(List)} does. All set operations are linear sweeps over both operands.
+ *
+ * Since only epoch milliseconds are stored, time zones and sub-millisecond precision are lost. Conversion back to
+ * periods needs the zone to use.
+ */
+public class PeriodSet {
+    private static final PeriodSet EMPTY = new PeriodSet(new long[0], 0);
+
+    // Alternating interval starts and ends, strictly ascending
+    private final long[] bounds;
+    private final int size;
+
+    private PeriodSet(long[] bounds, int size) {
+        this.bounds = bounds;
+        this.size = size;
+    }
+
+    /**
+     * @return the empty set
+     */
+    public static PeriodSet empty() {
+        return EMPTY;
+    }
+
+    /**
+     * Create a set covering a single interval
+     *
+     * @param fromMillis the start of the interval in epoch milliseconds, inclusive
+     * @param toMillis   the end of the interval in epoch milliseconds, exclusive
+     * @return the set, which is empty if the interval is
+     */
+    public static PeriodSet ofEpochMillis(long fromMillis, long toMillis) {
+        if (toMillis <= fromMillis) {
+            return EMPTY;
+        }
+        return new PeriodSet(new long[]{fromMillis, toMillis}, 1);
+    }
+
+    /**
+     * Create a set covering all given periods. The periods may be in any order and may overlap; empty periods are
+     * ignored.
+     *
+     * @param periods the periods
+     * @return the set
+     */
+    public static PeriodSet of(@NonNull List<Period> periods) {
+        int count = periods.size();
+        long[] starts = new long[count];
+        long[] ends = new long[count];
+        for (int i = 0; i < count; i++) {
+            Period period = periods.get(i);
+            starts[i] = period.getFrom().toInstant().toEpochMilli();
+            ends[i] = period.getTo().toInstant().toEpochMilli();
+        }
+        return of(starts, ends);
+    }
+
+    /**
+     * Create a set from arrays of interval starts and ends in epoch milliseconds, where the interval at each index
+     * runs from starts[i] to ends[i]. Both arrays are sorted in place.
+     */
+    static PeriodSet of(long[] starts, long[] ends) {
+        // Drop empty intervals, they would throw off the sweep below
+        int count = 0;
+        for (int i = 0; i < starts.length; i++) {
+            if (starts[i] < ends[i]) {
+                starts[count] = starts[i];
+                ends[count] = ends[i];
+                count++;
+            }
+        }
+
+        // Once empty intervals are gone, which start belongs to which end doesn't matter anymore for the union, so
+        // both can be sorted separately without boxing
+        Arrays.sort(starts, 0, count);
+        Arrays.sort(ends, 0, count);
+
+        Builder builder = new Builder(count);
+        int active = 0;
+        int si = 0;
+        int ei = 0;
+        while (ei < count) {
+            // Process starts before ends at the same instant, so touching intervals are merged
+            if (si < count && starts[si] <= ends[ei]) {
+                if (active++ == 0) {
+                    builder.start(starts[si]);
+                }
+                si++;
+            } else {
+                if (--active == 0) {
+                    builder.end(ends[ei]);
+                }
+                ei++;
+            }
+        }
+        return builder.build();
+    }
+
+    /**
+     * Get the set of points in time that are in this set, the other set, or both
+     *
+     * @param other the other set
+     * @return the union
+     */
+    public PeriodSet union(@NonNull PeriodSet other) {
+        if (other.size == 0) {
+            return this;
+        }
+        if (size == 0) {
+            return other;
+        }
+
+        Builder builder = new Builder(size + other.size);
+        int i = 0;
+        int j = 0;
+        long curFrom = 0;
+        long curTo = Long.MIN_VALUE;
+        boolean started = false;
+        while (i < size || j < other.size) {
+            // Take whichever interval starts first
+            long from;
+            long to;
+            if (j == other.size || (i < size && fromAt(i) <= other.fromAt(j))) {
+                from = fromAt(i);
+                to = toAt(i);
+                i++;
+            } else {
+                from = other.fromAt(j);
+                to = other.toAt(j);
+                j++;
+            }
+
+            if (started && from <= curTo) {
+                curTo = Math.max(curTo, to);
+            } else {
+                if (started) {
+                    builder.add(curFrom, curTo);
+                }
+                curFrom = from;
+                curTo = to;
+                started = true;
+            }
+        }
+        builder.add(curFrom, curTo);
+        return builder.build();
+    }
+
+    /**
+     * Get the set of points in time that are in both this set and the other set
+     *
+     * @param other the other set
+     * @return the intersection
+     */
+    public PeriodSet intersect(@NonNull PeriodSet other) {
+        if (size == 0 || other.size == 0) {
+            return EMPTY;
+        }
+
+        Builder builder = new Builder(size + other.size);
+        int i = 0;
+        int j = 0;
+        while (i < size && j < other.size) {
+            long from = Math.max(fromAt(i), other.fromAt(j));
+            long to = Math.min(toAt(i), other.toAt(j));
+            if (from < to) {
+                builder.add(from, to);
+            }
+            // Move past whichever interval ends first, it can't overlap anything else
+            if (toAt(i) < other.toAt(j)) {
+                i++;
+            } else {
+                j++;
+            }
+        }
+        return builder.build();
+    }
+
+    /**
+     * Get the set of points in time that are in this set but not in the other set
+     *
+     * @param other the set to subtract
+     * @return the difference
+     */
+    public PeriodSet subtract(@NonNull PeriodSet other) {
+        if (size == 0 || other.size == 0) {
+            return this;
+        }
+
+        Builder builder = new Builder(size + other.size);
+        int j = 0;
+        for (int i = 0; i < size; i++) {
+            long from = fromAt(i);
+            long to = toAt(i);
+            // Skip subtracted intervals that end before this one starts, they can't affect later intervals either
+            while (j < other.size && other.toAt(j) <= from) {
+                j++;
+            }
+            // Cut out every subtracted interval that overlaps this one
+            int k = j;
+            while (k < other.size && other.fromAt(k) < to) {
+                if (other.fromAt(k) > from) {
+                    builder.add(from, other.fromAt(k));
+                }
+                from = Math.max(from, other.toAt(k));
+                k++;
+            }
+            if (from < to) {
+                builder.add(from, to);
+            }
+        }
+        return builder.build();
+    }
+
+    /**
+     * Check whether a point in time is in this set
+     *
+     * @param epochMillis the point in time in epoch milliseconds
+     * @return true if it is in one of the intervals
+     */
+    public boolean contains(long epochMillis) {
+        int index = Arrays.binarySearch(bounds, 0, size * 2, epochMillis);
+        if (index >= 0) {
+            // Intervals include their start, but not their end
+            return (index & 1) == 0;
+        }
+        // Between a start and the following end
+        return ((-index - 1) & 1) == 1;
+    }
+
+    public boolean contains(@NonNull Instant instant) {
+        return contains(instant.toEpochMilli());
+    }
+
+    /**
+     * @return the number of disjoint intervals in this set
+     */
+    public int size() {
+        return size;
+    }
+
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    /**
+     * @return the total covered time in milliseconds
+     */
+    public long totalMillis() {
+        long total = 0;
+        for (int i = 0; i < size; i++) {
+            total += toAt(i) - fromAt(i);
+        }
+        return total;
+    }
+
+    /**
+     * Get the start of an interval
+     *
+     * @param index the index of the interval, in ascending order
+     * @return the start in epoch milliseconds, inclusive
+     */
+    public long fromAt(int index) {
+        return bounds[index * 2];
+    }
+
+    /**
+     * Get the end of an interval
+     *
+     * @param index the index of the interval, in ascending order
+     * @return the end in epoch milliseconds, exclusive
+     */
+    public long toAt(int index) {
+        return bounds[index * 2 + 1];
+    }
+
+    /**
+     * Convert the set back to periods
+     *
+     * @param zone the time zone of the periods
+     * @return one period per interval, sorted ascending
+     */
+    public List<Period> toPeriods(@NonNull ZoneId zone) {
+        List<Period> result = new ArrayList<>(size);
+        for (int i = 0; i < size; i++) {
+            result.add(new Period(
+                ZonedDateTime.ofInstant(Instant.ofEpochMilli(fromAt(i)), zone),
+                ZonedDateTime.ofInstant(Instant.ofEpochMilli(toAt(i)), zone)
+            ));
+        }
+        return result;
+    }
+
+    @Override
+    public boolean equals(Object obj) {
+        if (this == obj) {
+            return true;
+        }
+        if (!(obj instanceof PeriodSet)) {
+            return false;
+        }
+        PeriodSet other = (PeriodSet) obj;
+        if (size != other.size) {
+            return false;
+        }
+        for (int i = 0; i < size * 2; i++) {
+            if (bounds[i] != other.bounds[i]) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    @Override
+    public int hashCode() {
+        int result = 1;
+        for (int i = 0; i < size * 2; i++) {
+            result = 31 * result + Long.hashCode(bounds[i]);
+        }
+        return result;
+    }
+
+    @Override
+    public String toString() {
+        StringBuilder result = new StringBuilder("PeriodSet(");
+        for (int i = 0; i < size; i++) {
+            if (i > 0) {
+                result.append(", ");
+            }
+            result.append('[')
+                .append(Instant.ofEpochMilli(fromAt(i)))
+                .append(", ")
+                .append(Instant.ofEpochMilli(toAt(i)))
+                .append(')');
+        }
+        return result.append(')').toString();
+    }
+
+    /**
+     * Collects ascending intervals into a bounds array. Adding an interval that touches the previous one extends it.
+     */
+    static class Builder {
+        private long[] bounds;
+        private int size = 0;
+
+        Builder(int expectedSize) {
+            bounds = new long[Math.max(2, expectedSize * 2)];
+        }
+
+        void add(long from, long to) {
+            if (size > 0 && bounds[size * 2 - 1] == from) {
+                bounds[size * 2 - 1] = to;
+                return;
+            }
+            start(from);
+            end(to);
+        }
+
+        void start(long from) {
+            if (size * 2 == bounds.length) {
+                bounds = Arrays.copyOf(bounds, bounds.length * 2);
+            }
+            bounds[size * 2] = from;
+        }
+
+        void end(long to) {
+            bounds[size * 2 + 1] = to;
+            size++;
+        }
+
+        PeriodSet build() {
+            if (size == 0) {
+                return EMPTY;
+            }
+            // Don't hold on to a lot of unused capacity
+            long[] result = bounds.length > size * 4 ? Arrays.copyOf(bounds, size * 2) : bounds;
+            return new PeriodSet(result, size);
+        }
+    }
+}
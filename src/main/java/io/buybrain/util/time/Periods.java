@@ -4,10 +4,24 @@ import io.buybrain.util.Tuple2;
 import lombok.NonNull;
 import lombok.val;
 
+import java.time.DayOfWeek;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.ZoneId;
 import java.time.ZonedDateTime;
+import java.time.temporal.ChronoUnit;
+import java.time.temporal.TemporalAdjusters;
+import java.time.temporal.TemporalUnit;
 import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Iterator;
 import java.util.List;
+import java.util.NoSuchElementException;
 import java.util.Optional;
+import java.util.PriorityQueue;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
 
 import static java.util.Arrays.asList;
 import static java.util.Collections.singletonList;
@@ -18,6 +32,9 @@ import static java.util.stream.Collectors.toList;
  * Operations that can be applied to {@link Period} instances
  */
 public class Periods {
+    // Smallest number of periods that parallelMerge hands to a single task
+    private static final int MIN_PARALLEL_CHUNK = 1 << 13;
+
     /**
      * Merge two lists of periods such that periods that are overlapping or adjacent are collapsed into a single period
      *
@@ -41,7 +58,44 @@ public class Periods {
     public static List<Period> merge(@NonNull List<Period> periods) {
         // Sort periods by start date
         periods.sort(comparing(Period::getFrom));
+        return collapse(periods);
+    }
 
+    /**
+     * Merge a list of periods like {@link #merge(List)}, but sort and merge using all cores of the common fork-join
+     * pool. Unlike {@link #merge(List)}, the given list is left untouched. Only worth it for very large lists.
+     *
+     * @param periods the periods to merge
+     * @return the list of merged periods, sorted ascending
+     */
+    public static List<Period> parallelMerge(@NonNull List<Period> periods) {
+        Period[] sorted = periods.toArray(new Period[0]);
+        Arrays.parallelSort(sorted, comparing(Period::getFrom));
+
+        int chunkCount = Math.min(
+            ForkJoinPool.getCommonPoolParallelism() * 4,
+            (sorted.length + MIN_PARALLEL_CHUNK - 1) / MIN_PARALLEL_CHUNK
+        );
+        if (chunkCount <= 1) {
+            return collapse(asList(sorted));
+        }
+
+        MergeTask task = new MergeTask(sorted, chunkCount);
+        ForkJoinPool.commonPool().invoke(task);
+
+        // Every chunk is merged on its own, but the last period of a chunk may still overlap the first periods of the
+        // next ones. The chunk outputs are still sorted by start, so merging them once more stitches them together.
+        val stitched = new ArrayList<Period>();
+        for (List<Period> output : task.outputs) {
+            stitched.addAll(output);
+        }
+        return collapse(stitched);
+    }
+
+    /**
+     * Collapse overlapping and adjacent periods in a list that is sorted by start
+     */
+    private static List<Period> collapse(List<Period> periods) {
         val result = new ArrayList<Period>();
 
         ZonedDateTime curStart = null;
@@ -89,6 +143,115 @@ public class Periods {
             .collect(toList());
     }
 
+    /**
+     * Remove a list of periods from every period in another list, in a single sweep over both. The subjects should be
+     * sorted by start. The periods to subtract should be sorted and contain no overlapping periods; if they might,
+     * sanitize them with {@link #merge(List)} first. When the subjects don't overlap either, this takes linear time.
+     * Pieces of overlapping subjects are kept apart rather than merged, which means they can come out of order; in
+     * that case the result is sorted afterwards.
+     *
+     * @param subjects   the periods to subtract from, sorted by start
+     * @param toSubtract the periods to subtract, sorted and not overlapping
+     * @return the results of the subtraction, sorted by start
+     */
+    public static List<Period> subtract(@NonNull List<Period> subjects, @NonNull List<Period> toSubtract) {
+        val result = new ArrayList<Period>();
+        boolean sorted = true;
+        int first = 0;
+        for (Period subject : subjects) {
+            // Skip periods that end before this subject starts. Since subjects are sorted, they end before all
+            // following subjects start as well.
+            while (first < toSubtract.size() && !toSubtract.get(first).getTo().isAfter(subject.getFrom())) {
+                first++;
+            }
+
+            if (!result.isEmpty() && subject.getFrom().isBefore(result.get(result.size() - 1).getFrom())) {
+                // A previous subject overlaps this one, and its remainder starts after this subject does
+                sorted = false;
+            }
+            ZonedDateTime curStart = subject.getFrom();
+            for (int i = first; i < toSubtract.size(); i++) {
+                Period cut = toSubtract.get(i);
+                if (!cut.getFrom().isBefore(subject.getTo())) {
+                    break;
+                }
+                if (cut.getFrom().isAfter(curStart)) {
+                    result.add(new Period(curStart, cut.getFrom()));
+                }
+                curStart = max(curStart, cut.getTo());
+            }
+            if (curStart.isBefore(subject.getTo())) {
+                result.add(new Period(curStart, subject.getTo()));
+            }
+        }
+        if (!sorted) {
+            result.sort(comparing(Period::getFrom));
+        }
+        return result;
+    }
+
+    /**
+     * Get the periods of time where exactly one of two lists has an active period. The lists are expected to contain
+     * no overlapping periods, see {@link #coverage(List)}. When they are sorted by start as well, this takes linear
+     * time; otherwise they are sorted first.
+     *
+     * @param a first periods
+     * @param b second periods
+     * @return the periods of time covered by either a or b but not both, sorted ascending
+     */
+    public static List<Period> symmetricDifference(@NonNull List<Period> a, @NonNull List<Period> b) {
+        a = sortedByStart(a);
+        b = sortedByStart(b);
+
+        // Without overlaps, the boundaries of a list alternate between starts and ends, so a list has an active period
+        // exactly when an odd number of its boundaries have been passed
+        val result = new ArrayList<Period>();
+        int ai = 0;
+        int bi = 0;
+        ZonedDateTime stepStart = null;
+        while (ai < a.size() * 2 || bi < b.size() * 2) {
+            boolean fromA = ai < a.size() * 2 && (bi >= b.size() * 2 || !boundary(b, bi).isBefore(boundary(a, ai)));
+            ZonedDateTime time = fromA ? boundary(a, ai) : boundary(b, bi);
+            boolean wasOne = (ai & 1) != (bi & 1);
+            // Pass all boundaries at the same instant at once, so touching periods don't produce empty steps
+            while (ai < a.size() * 2 && boundary(a, ai).isEqual(time)) {
+                ai++;
+            }
+            while (bi < b.size() * 2 && boundary(b, bi).isEqual(time)) {
+                bi++;
+            }
+            boolean isOne = (ai & 1) != (bi & 1);
+            if (isOne && !wasOne) {
+                stepStart = time;
+            } else if (wasOne && !isOne) {
+                result.add(new Period(stepStart, time));
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Get boundary i of a list of periods, where even boundaries are starts and odd boundaries are ends
+     */
+    private static ZonedDateTime boundary(List<Period> periods, int i) {
+        Period period = periods.get(i >> 1);
+        return (i & 1) == 0 ? period.getFrom() : period.getTo();
+    }
+
+    /**
+     * Get a list of periods sorted by start, which is the list itself if it already is
+     */
+    private static List<Period> sortedByStart(List<Period> periods) {
+        for (int i = 1; i < periods.size(); i++) {
+            if (periods.get(i).getFrom().isBefore(periods.get(i - 1).getFrom())) {
+                val sorted = new ArrayList<Period>(periods);
+                sorted.sort(comparing(Period::getFrom));
+                return sorted;
+            }
+        }
+        return periods;
+    }
+
     /**
      * Remove one period from another period. This operation can yield 0, 1 or 2 resulting periods. If the subject is
      * fully covered by the subtracted period, there is no period left. If part of the inside of the subject is
@@ -162,6 +325,264 @@ public class Periods {
         return result;
     }
 
+    /**
+     * Count how many periods are active over time, across any number of lists. Like {@link #intersect(List, List)},
+     * each list is expected to contain no overlapping periods, so the count is the number of lists with an active
+     * period. If they might overlap, sanitize them with {@link #merge(List)} first.
+     *
+     * @param lists the lists of periods
+     * @return the step function of active counts as consecutive periods with their count, sorted ascending. Periods
+     * with a count of 0 are left out, and neighbouring periods always have different counts.
+     */
+    public static List<Tuple2<Period, Integer>> coverage(@NonNull List<List<Period>> lists) {
+        val result = new ArrayList<Tuple2<Period, Integer>>();
+        sweep(lists, (from, to, count) -> result.add(new Tuple2<>(new Period(from, to), count)));
+        return result;
+    }
+
+    /**
+     * Get the periods of time where at least a given number of lists have an active period. The lists are expected
+     * to contain no overlapping periods, see {@link #coverage(List)}.
+     *
+     * @param min   the minimum number of lists that should have an active period
+     * @param lists the lists of periods
+     * @return the periods of time where at least min lists are active, sorted ascending
+     */
+    public static List<Period> atLeast(int min, @NonNull List<List<Period>> lists) {
+        if (min < 1) {
+            throw new IllegalArgumentException("Minimum number of active lists must be at least 1");
+        }
+        val result = new ArrayList<Period>();
+        sweep(lists, (from, to, count) -> {
+            if (count < min) {
+                return;
+            }
+            int last = result.size() - 1;
+            if (last >= 0 && result.get(last).getTo().isEqual(from)) {
+                // The previous step also qualified, extend it
+                result.set(last, new Period(result.get(last).getFrom(), to));
+            } else {
+                result.add(new Period(from, to));
+            }
+        });
+        return result;
+    }
+
+    /**
+     * Get the intersection between any number of lists of periods. The lists are expected to contain no overlapping
+     * periods, see {@link #coverage(List)}.
+     *
+     * @param lists the lists of periods
+     * @return the periods of time where all lists are active, sorted ascending
+     */
+    public static List<Period> intersectAll(@NonNull List<List<Period>> lists) {
+        return lists.isEmpty() ? new ArrayList<>() : atLeast(lists.size(), lists);
+    }
+
+    /**
+     * Divide time into buckets of a calendar unit, such as hours or days, and determine how much of each bucket is
+     * covered by a list of periods. Overlapping periods are merged first, so overlapping time is counted once.
+     *
+     * Buckets follow the calendar of the given time zone, so daily buckets start at local midnight and may be 23 or
+     * 25 hours long around daylight saving time transitions. The first bucket contains the start of the earliest
+     * period and the last bucket contains the end of the latest period. The calendar math is done once per bucket
+     * boundary, after which periods are distributed over the buckets with primitive arithmetic.
+     *
+     * @param periods the periods, in any order
+     * @param unit    the size of the buckets, which can be a time unit that divides a day evenly, or days, weeks
+     *                (starting on Monday), months or years
+     * @param zone    the time zone whose calendar determines the bucket boundaries
+     * @return the buckets with the covered time in each
+     */
+    public static PeriodBuckets bucket(
+        @NonNull List<Period> periods,
+        @NonNull TemporalUnit unit,
+        @NonNull ZoneId zone
+    ) {
+        return bucket(PeriodSet.of(periods), unit, zone);
+    }
+
+    /**
+     * Divide time into buckets of a calendar unit and determine how much of each bucket is covered by a set of
+     * periods, see {@link #bucket(List, TemporalUnit, ZoneId)}
+     *
+     * @param periods the set of periods
+     * @param unit    the size of the buckets
+     * @param zone    the time zone whose calendar determines the bucket boundaries
+     * @return the buckets with the covered time in each
+     */
+    public static PeriodBuckets bucket(
+        @NonNull PeriodSet periods,
+        @NonNull TemporalUnit unit,
+        @NonNull ZoneId zone
+    ) {
+        if (periods.isEmpty()) {
+            return new PeriodBuckets(zone, new long[0], new long[0]);
+        }
+
+        // Compute all boundaries from the first one, rather than each from the previous one, so there is no drift
+        ZonedDateTime first = ZonedDateTime.ofInstant(Instant.ofEpochMilli(periods.fromAt(0)), zone);
+        long end = periods.toAt(periods.size() - 1);
+        long[] boundaries = new long[16];
+        int count = 0;
+        long boundary;
+        do {
+            if (count == boundaries.length) {
+                boundaries = Arrays.copyOf(boundaries, count * 2);
+            }
+            boundary = bucketBoundary(first, unit, count);
+            boundaries[count++] = boundary;
+        } while (boundary < end);
+        boundaries = Arrays.copyOf(boundaries, count);
+
+        long[] covered = new long[count - 1];
+        int bucket = 0;
+        for (int i = 0; i < periods.size(); i++) {
+            long from = periods.fromAt(i);
+            long to = periods.toAt(i);
+            while (boundaries[bucket + 1] <= from) {
+                bucket++;
+            }
+            while (true) {
+                long bucketEnd = boundaries[bucket + 1];
+                if (to <= bucketEnd) {
+                    covered[bucket] += to - from;
+                    break;
+                }
+                // The period continues into the next bucket
+                covered[bucket] += bucketEnd - from;
+                from = bucketEnd;
+                bucket++;
+            }
+        }
+
+        return new PeriodBuckets(zone, boundaries, covered);
+    }
+
+    /**
+     * Lazily merge sources of periods that are each sorted by start, collapsing overlapping or adjacent periods like
+     * {@link #merge(List)}. Sources are only read as far as needed to produce the next merged period, and only the
+     * current period of each source is kept in memory, so this works on data sets that don't fit in memory, for
+     * example when fed by {@link io.buybrain.util.QueuedIterator} instances.
+     *
+     * @param sources the sources, each sorted ascending by start
+     * @return an iterator over the merged periods, sorted ascending
+     * @throws IllegalArgumentException from the returned iterator if a source turns out not to be sorted
+     */
+    @SafeVarargs
+    public static Iterator<Period> mergeSorted(@NonNull Iterator<Period>... sources) {
+        List<Iterator<Period>> list = new ArrayList<>(sources.length);
+        for (Iterator<Period> source : sources) {
+            list.add(source);
+        }
+        return mergeSorted(list);
+    }
+
+    /**
+     * Lazily merge sources of periods that are each sorted by start, see {@link #mergeSorted(Iterator[])}
+     *
+     * @param sources the sources, each sorted ascending by start
+     * @return an iterator over the merged periods, sorted ascending
+     */
+    public static Iterator<Period> mergeSorted(@NonNull List<Iterator<Period>> sources) {
+        return new MergingIterator(sources);
+    }
+
+    /**
+     * Lazily get the intersection between two sources of periods that are each sorted by start. Unlike
+     * {@link #intersect(List, List)}, the periods within each source may overlap, and periods that merely touch don't
+     * yield an empty intersection. Like {@link #mergeSorted(Iterator[])}, sources are read as far as needed only.
+     *
+     * @param a first sorted source
+     * @param b second sorted source
+     * @return an iterator over the periods of time where both a and b have an active period, sorted ascending
+     * @throws IllegalArgumentException from the returned iterator if a source turns out not to be sorted
+     */
+    public static Iterator<Period> intersectSorted(@NonNull Iterator<Period> a, @NonNull Iterator<Period> b) {
+        return new IntersectingIterator(mergeSorted(a), mergeSorted(b));
+    }
+
+    /**
+     * Sweep over all period boundaries in all lists, and report every maximal period of time during which the number
+     * of active periods is constant and positive
+     */
+    private static void sweep(List<List<Period>> lists, StepConsumer consumer) {
+        int total = 0;
+        for (List<Period> list : lists) {
+            total += list.size();
+        }
+
+        // Which start belongs to which end doesn't matter for the counts, so sort them separately
+        ZonedDateTime[] starts = new ZonedDateTime[total];
+        ZonedDateTime[] ends = new ZonedDateTime[total];
+        int index = 0;
+        for (List<Period> list : lists) {
+            for (Period period : list) {
+                starts[index] = period.getFrom();
+                ends[index] = period.getTo();
+                index++;
+            }
+        }
+        Arrays.sort(starts);
+        Arrays.sort(ends);
+
+        int count = 0;
+        ZonedDateTime stepStart = null;
+        int si = 0;
+        int ei = 0;
+        while (ei < total) {
+            ZonedDateTime time = si < total && starts[si].isBefore(ends[ei]) ? starts[si] : ends[ei];
+            // Apply all boundaries at the same instant at once, so touching periods don't produce empty steps
+            int newCount = count;
+            while (si < total && starts[si].isEqual(time)) {
+                newCount++;
+                si++;
+            }
+            while (ei < total && ends[ei].isEqual(time)) {
+                newCount--;
+                ei++;
+            }
+            if (newCount != count) {
+                if (count > 0) {
+                    consumer.accept(stepStart, time, count);
+                }
+                stepStart = time;
+                count = newCount;
+            }
+        }
+    }
+
+    private interface StepConsumer {
+        void accept(ZonedDateTime from, ZonedDateTime to, int count);
+    }
+
+    /**
+     * Get a bucket boundary in epoch milliseconds
+     *
+     * @param first the instant the first bucket should contain
+     * @param unit  the size of the buckets
+     * @param index the index of the boundary, where 0 is the start of the first bucket
+     */
+    private static long bucketBoundary(ZonedDateTime first, TemporalUnit unit, long index) {
+        if (!unit.isDateBased()) {
+            // Time based units are added as exact durations, so hours stay hours across DST transitions
+            return first.truncatedTo(unit).plus(index, unit).toInstant().toEpochMilli();
+        }
+
+        LocalDate date = first.toLocalDate();
+        if (unit == ChronoUnit.WEEKS) {
+            date = date.with(TemporalAdjusters.previousOrSame(DayOfWeek.MONDAY));
+        } else if (unit == ChronoUnit.MONTHS) {
+            date = date.withDayOfMonth(1);
+        } else if (unit == ChronoUnit.YEARS) {
+            date = date.withDayOfYear(1);
+        } else if (unit != ChronoUnit.DAYS) {
+            throw new IllegalArgumentException("Unsupported bucket unit " + unit);
+        }
+        // Take the start of the day in the zone rather than midnight, since midnight may not exist on DST transitions
+        return date.plus(index, unit).atStartOfDay(first.getZone()).toInstant().toEpochMilli();
+    }
+
     private static ZonedDateTime min(ZonedDateTime a, ZonedDateTime b) {
         return a.isBefore(b) ? a : b;
     }
@@ -169,4 +590,176 @@ public class Periods {
     private static ZonedDateTime max(ZonedDateTime a, ZonedDateTime b) {
         return a.isBefore(b) ? b : a;
     }
+
+    /**
+     * Base for iterators that compute their next element ahead of time, since that's the only way to know whether
+     * there is one
+     */
+    private static abstract class LookaheadIterator implements Iterator<Period> {
+        private Period next;
+
+        /**
+         * @return the next element, or null if there are no more
+         */
+        protected abstract Period computeNext();
+
+        @Override
+        public boolean hasNext() {
+            if (next == null) {
+                next = computeNext();
+            }
+            return next != null;
+        }
+
+        @Override
+        public Period next() {
+            if (!hasNext()) {
+                throw new NoSuchElementException();
+            }
+            Period result = next;
+            next = null;
+            return result;
+        }
+    }
+
+    private static class MergingIterator extends LookaheadIterator {
+        private final List<Iterator<Period>> sources;
+        // Holds the current period of every source that isn't exhausted, ordered by start
+        private PriorityQueue<Head> heads;
+
+        MergingIterator(List<Iterator<Period>> sources) {
+            this.sources = sources;
+        }
+
+        @Override
+        protected Period computeNext() {
+            if (heads == null) {
+                // Delay reading the sources until the first period is requested, since that may block
+                heads = new PriorityQueue<>(Math.max(1, sources.size()), comparing((Head h) -> h.period.getFrom()));
+                for (Iterator<Period> source : sources) {
+                    Head head = new Head(source);
+                    if (head.advance()) {
+                        heads.add(head);
+                    }
+                }
+            }
+            if (heads.isEmpty()) {
+                return null;
+            }
+
+            Head head = heads.poll();
+            ZonedDateTime curStart = head.period.getFrom();
+            ZonedDateTime curEnd = head.period.getTo();
+            while (true) {
+                if (head.advance()) {
+                    heads.add(head);
+                }
+                head = heads.peek();
+                if (head == null || head.period.getFrom().isAfter(curEnd)) {
+                    // Nothing left that could be merged into the current period
+                    return new Period(curStart, curEnd);
+                }
+                heads.poll();
+                if (head.period.getTo().isAfter(curEnd)) {
+                    curEnd = head.period.getTo();
+                }
+            }
+        }
+    }
+
+    private static class Head {
+        private final Iterator<Period> source;
+        private Period period;
+
+        Head(Iterator<Period> source) {
+            this.source = source;
+        }
+
+        boolean advance() {
+            if (!source.hasNext()) {
+                return false;
+            }
+            Period prev = period;
+            period = source.next();
+            if (prev != null && period.getFrom().isBefore(prev.getFrom())) {
+                throw new IllegalArgumentException("Source of periods is not sorted: " + period + " follows " + prev);
+            }
+            return true;
+        }
+    }
+
+    private static class IntersectingIterator extends LookaheadIterator {
+        private final Iterator<Period> a;
+        private final Iterator<Period> b;
+        private Period curA;
+        private Period curB;
+
+        IntersectingIterator(Iterator<Period> a, Iterator<Period> b) {
+            this.a = a;
+            this.b = b;
+        }
+
+        @Override
+        protected Period computeNext() {
+            while (true) {
+                if (curA == null) {
+                    curA = a.hasNext() ? a.next() : null;
+                }
+                if (curB == null) {
+                    curB = b.hasNext() ? b.next() : null;
+                }
+                if (curA == null || curB == null) {
+                    return null;
+                }
+
+                ZonedDateTime from = max(curA.getFrom(), curB.getFrom());
+                ZonedDateTime to = min(curA.getTo(), curB.getTo());
+                // Move past whichever period ends first, it can't overlap anything else
+                if (curA.getTo().isBefore(curB.getTo())) {
+                    curA = null;
+                } else {
+                    curB = null;
+                }
+                if (from.isBefore(to)) {
+                    return new Period(from, to);
+                }
+            }
+        }
+    }
+
+    private static class MergeTask extends RecursiveAction {
+        private static final long serialVersionUID = 1L;
+
+        private final Period[] sorted;
+        // Filled in by chunk; each slot is written by one subtask and read after the whole task has joined
+        private final List<List<Period>> outputs;
+        private final int fromChunk;
+        private final int toChunk;
+
+        MergeTask(Period[] sorted, int chunkCount) {
+            this.sorted = sorted;
+            this.outputs = new ArrayList<>(Collections.nCopies(chunkCount, null));
+            this.fromChunk = 0;
+            this.toChunk = chunkCount;
+        }
+
+        private MergeTask(MergeTask parent, int fromChunk, int toChunk) {
+            this.sorted = parent.sorted;
+            this.outputs = parent.outputs;
+            this.fromChunk = fromChunk;
+            this.toChunk = toChunk;
+        }
+
+        @Override
+        protected void compute() {
+            if (toChunk - fromChunk > 1) {
+                int mid = (fromChunk + toChunk) >>> 1;
+                invokeAll(new MergeTask(this, fromChunk, mid), new MergeTask(this, mid, toChunk));
+                return;
+            }
+            int from = (int) ((long) sorted.length * fromChunk / outputs.size());
+            int to = (int) ((long) sorted.length * toChunk / outputs.size());
+            outputs.set(fromChunk, collapse(asList(sorted).subList(from, to)));
+        }
+    }
 }
@@ -0,0 +1,373 @@
+package io.buybrain.util.time;
+
+import lombok.NonNull;
+import lombok.extern.slf4j.Slf4j;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicIntegerFieldUpdater;
+
+/**
+ * Scheduler for large numbers of timeouts, based on a hierarchical hashed timing wheel. Scheduling and cancelling are
+ * O(1) and lock free; the cost of keeping track of time is paid once per tick rather than per timer.
+ *
+ * Time is divided into ticks of a configurable length. The wheel at level 0 has a bucket for each of the next 256
+ * ticks, the wheel at level 1 has a bucket for each of the next 256 spans of 256 ticks, and so on. Whenever a span of
+ * a higher level wheel starts, its timers are redistributed over the lower levels. Timers fire at the first tick on
+ * or after their deadline, so never early, but up to one tick late.
+ *
+ * Time is read from a {@link Clock}. Due timers are run by {@link #advance()}, on the calling thread. Either call it
+ * yourself, which makes the scheduler fully deterministic when combined with a {@link MockClock}, or call
+ * {@link #start()} to have a background thread do it every tick. Tasks should be short, since they delay all other
+ * timers while they run. Tasks run after the wheels have been updated and without holding any lock, so they may use
+ * the scheduler themselves.
+ */
+@Slf4j
+public class Scheduler implements AutoCloseable {
+    private static final int WHEEL_BITS = 8;
+    private static final int WHEEL_SIZE = 1 << WHEEL_BITS;
+    private static final int WHEEL_MASK = WHEEL_SIZE - 1;
+    // Enough levels to cover every possible tick count
+    private static final int LEVELS = 64 / WHEEL_BITS;
+
+    private final Clock clock;
+    private final long tickNanos;
+    private final long originNanos;
+    private final Timeout[][] wheels = new Timeout[LEVELS][WHEEL_SIZE];
+    private final Queue<Timeout> scheduled = new ConcurrentLinkedQueue<>();
+    private final Queue<Timeout> cancelled = new ConcurrentLinkedQueue<>();
+    private final AtomicInteger pending = new AtomicInteger();
+
+    // Only accessed while holding the lock on this scheduler
+    private long currentTick = 0;
+    private long inWheels = 0;
+
+    private volatile Thread worker;
+    private volatile boolean closed = false;
+
+    /**
+     * Construct a scheduler with a tick of 1 millisecond using the system clock
+     */
+    public Scheduler() {
+        this(SystemClock.get(), Duration.ofMillis(1));
+    }
+
+    /**
+     * Scheduler constructor
+     *
+     * @param clock the clock to read time from, and to sleep on when started
+     * @param tick  the length of a tick, which determines the precision of the timers
+     */
+    public Scheduler(@NonNull Clock clock, @NonNull Duration tick) {
+        if (tick.isNegative() || tick.isZero()) {
+            throw new IllegalArgumentException("Tick must be positive");
+        }
+        this.clock = clock;
+        this.tickNanos = tick.toNanos();
+        this.originNanos = clock.nowNanos();
+    }
+
+    /**
+     * Schedule a task to run after a delay
+     *
+     * @param delay the delay
+     * @param task  the task to run
+     * @return the timeout, which can be used to cancel the task
+     */
+    public Timeout schedule(@NonNull Duration delay, @NonNull Runnable task) {
+        long deadlineNanos = clock.nowNanos() - originNanos + Math.max(0, delay.toNanos());
+        // Round up, so the task never runs early
+        long deadlineTick = (deadlineNanos + tickNanos - 1) / tickNanos;
+
+        Timeout timeout = new Timeout(this, task, deadlineTick);
+        pending.incrementAndGet();
+        scheduled.add(timeout);
+        return timeout;
+    }
+
+    /**
+     * Run all tasks that are due according to the clock
+     */
+    public void advance() {
+        List<Runnable> due = collectDue();
+        for (int i = 0; i < due.size(); i++) {
+            try {
+                due.get(i).run();
+            } catch (Throwable ex) {
+                log.warn("Scheduled task threw exception", ex);
+            }
+        }
+    }
+
+    /**
+     * Advance the wheels to the current tick, and take out the tasks that are due, in deadline order
+     */
+    private synchronized List<Runnable> collectDue() {
+        long targetTick = (clock.nowNanos() - originNanos) / tickNanos;
+        List<Runnable> due = Collections.emptyList();
+
+        Timeout timeout;
+        while ((timeout = cancelled.poll()) != null) {
+            unlink(timeout);
+        }
+        while ((timeout = scheduled.poll()) != null) {
+            if (timeout.state == Timeout.WAITING) {
+                insert(timeout, currentTick + 1);
+                inWheels++;
+            }
+        }
+
+        while (currentTick < targetTick) {
+            if (inWheels == 0) {
+                // Nothing to do, skip ahead
+                currentTick = targetTick;
+                break;
+            }
+            if (targetTick - currentTick <= WHEEL_SIZE) {
+                currentTick++;
+            } else {
+                // Skip ticks where no bucket expires or cascades, so a big jump in time doesn't hold the lock for long
+                long next = nextBusyTick();
+                if (next > targetTick) {
+                    currentTick = targetTick;
+                    break;
+                }
+                currentTick = next;
+            }
+            cascade();
+            due = expire(due);
+        }
+        return due;
+    }
+
+    /**
+     * Find the first tick after the current one at which a non-empty bucket expires or cascades
+     *
+     * @return the tick, or Long.MAX_VALUE if there is none
+     */
+    private long nextBusyTick() {
+        long next = Long.MAX_VALUE;
+        // Level 0 only holds timers expiring within one revolution
+        for (long tick = currentTick + 1; tick <= currentTick + WHEEL_SIZE; tick++) {
+            if (wheels[0][(int) tick & WHEEL_MASK] != null) {
+                next = tick;
+                break;
+            }
+        }
+        // Higher levels cascade a bucket each time a span of that level starts, which may be before the next level 0
+        // bucket expires
+        for (int level = 1; level < LEVELS; level++) {
+            int shift = WHEEL_BITS * level;
+            long span = currentTick >>> shift;
+            for (int i = 1; i <= WHEEL_SIZE; i++) {
+                if (span + i > Long.MAX_VALUE >>> shift) {
+                    break;
+                }
+                if (wheels[level][(int) (span + i) & WHEEL_MASK] != null) {
+                    next = Math.min(next, (span + i) << shift);
+                    break;
+                }
+            }
+        }
+        return next;
+    }
+
+    /**
+     * Start a daemon thread that calls {@link #advance()} every tick
+     *
+     * @return this scheduler
+     */
+    public synchronized Scheduler start() {
+        if (worker != null) {
+            throw new IllegalStateException("Scheduler is already started");
+        }
+        Duration tick = Duration.ofNanos(tickNanos);
+        worker = new Thread(() -> {
+            try {
+                while (!closed) {
+                    advance();
+                    clock.sleep(tick);
+                }
+            } catch (Throwable ex) {
+                // Interrupting the sleep is how close() stops this thread
+                if (!closed) {
+                    log.error("Scheduler thread stopped unexpectedly", ex);
+                }
+            }
+        }, "scheduler");
+        worker.setDaemon(true);
+        worker.start();
+        return this;
+    }
+
+    /**
+     * Stop the background thread, if started, and wait for it to finish the task it may be running. Pending tasks will
+     * not run anymore, unless {@link #advance()} is called.
+     */
+    @Override
+    public void close() {
+        closed = true;
+        Thread current = worker;
+        if (current == null || current == Thread.currentThread()) {
+            return;
+        }
+        current.interrupt();
+        try {
+            current.join();
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    /**
+     * @return the number of tasks that are scheduled and not yet run or cancelled
+     */
+    public int pendingCount() {
+        return pending.get();
+    }
+
+    private void insert(Timeout timeout, long minTick) {
+        long expires = Math.max(timeout.deadlineTick, minTick);
+        long delta = expires - currentTick;
+
+        int level = 0;
+        while (level < LEVELS - 1 && delta >= 1L << (WHEEL_BITS * (level + 1))) {
+            level++;
+        }
+        int index = (int) (expires >>> (WHEEL_BITS * level)) & WHEEL_MASK;
+
+        Timeout head = wheels[level][index];
+        timeout.next = head;
+        timeout.prev = null;
+        if (head != null) {
+            head.prev = timeout;
+        }
+        wheels[level][index] = timeout;
+        timeout.level = level;
+        timeout.index = index;
+    }
+
+    private void unlink(Timeout timeout) {
+        if (timeout.level < 0) {
+            // Never inserted or already removed
+            return;
+        }
+        if (timeout.prev != null) {
+            timeout.prev.next = timeout.next;
+        } else {
+            wheels[timeout.level][timeout.index] = timeout.next;
+        }
+        if (timeout.next != null) {
+            timeout.next.prev = timeout.prev;
+        }
+        timeout.prev = null;
+        timeout.next = null;
+        timeout.level = -1;
+        inWheels--;
+    }
+
+    private void cascade() {
+        for (int level = 1; level < LEVELS; level++) {
+            if ((currentTick & ((1L << (WHEEL_BITS * level)) - 1)) != 0) {
+                // This level isn't starting a new span
+                return;
+            }
+            int index = (int) (currentTick >>> (WHEEL_BITS * level)) & WHEEL_MASK;
+            Timeout timeout = wheels[level][index];
+            wheels[level][index] = null;
+            while (timeout != null) {
+                Timeout next = timeout.next;
+                // Timers due right now go into the level 0 bucket that's about to expire
+                insert(timeout, currentTick);
+                timeout = next;
+            }
+        }
+    }
+
+    private List<Runnable> expire(List<Runnable> due) {
+        int index = (int) currentTick & WHEEL_MASK;
+        Timeout timeout = wheels[0][index];
+        wheels[0][index] = null;
+        while (timeout != null) {
+            Timeout next = timeout.next;
+            timeout.prev = null;
+            timeout.next = null;
+            timeout.level = -1;
+            inWheels--;
+            if (timeout.expire()) {
+                if (due.isEmpty()) {
+                    due = new ArrayList<>();
+                }
+                due.add(timeout.task);
+            }
+            timeout = next;
+        }
+        return due;
+    }
+
+    /**
+     * Handle to a scheduled task
+     */
+    public static class Timeout {
+        private static final int WAITING = 0;
+        private static final int CANCELLED = 1;
+        private static final int EXPIRED = 2;
+        private static final AtomicIntegerFieldUpdater<Timeout> STATE =
+            AtomicIntegerFieldUpdater.newUpdater(Timeout.class, "state");
+
+        private final Scheduler scheduler;
+        private final Runnable task;
+        private final long deadlineTick;
+        private volatile int state = WAITING;
+
+        // Position in the wheels, only accessed while holding the lock on the scheduler
+        private Timeout prev;
+        private Timeout next;
+        private int level = -1;
+        private int index;
+
+        private Timeout(Scheduler scheduler, Runnable task, long deadlineTick) {
+            this.scheduler = scheduler;
+            this.task = task;
+            this.deadlineTick = deadlineTick;
+        }
+
+        /**
+         * Cancel the task, if it didn't run yet
+         *
+         * @return true if the task was cancelled, false if it already ran or was cancelled before
+         */
+        public boolean cancel() {
+            if (!STATE.compareAndSet(this, WAITING, CANCELLED)) {
+                return false;
+            }
+            scheduler.pending.decrementAndGet();
+            scheduler.cancelled.add(this);
+            return true;
+        }
+
+        public boolean isCancelled() {
+            return state == CANCELLED;
+        }
+
+        /**
+         * @return true if the task has been started
+         */
+        public boolean isExpired() {
+            return state == EXPIRED;
+        }
+
+        private boolean expire() {
+            if (!STATE.compareAndSet(this, WAITING, EXPIRED)) {
+                return false;
+            }
+            scheduler.pending.decrementAndGet();
+            return true;
+        }
+    }
+}
@@ -0,0 +1,116 @@
+package io.buybrain.util.time;
+
+import lombok.NonNull;
+
+import java.time.Duration;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures elapsed time using a {@link Ticker}. Starting, stopping and reading the elapsed time don't allocate, so a
+ * stopwatch can be reused on hot paths. Instances are not thread safe.
+ */
+public class Stopwatch {
+    private final Ticker ticker;
+    private boolean running;
+    private long startNanos;
+    private long elapsedNanos;
+
+    private Stopwatch(Ticker ticker) {
+        this.ticker = ticker;
+    }
+
+    /**
+     * @return a new, running stopwatch using the system ticker
+     */
+    public static Stopwatch createStarted() {
+        return createStarted(SystemTicker.get());
+    }
+
+    /**
+     * @param ticker the ticker to read time from
+     * @return a new, running stopwatch
+     */
+    public static Stopwatch createStarted(@NonNull Ticker ticker) {
+        return new Stopwatch(ticker).start();
+    }
+
+    /**
+     * @param ticker the ticker to read time from
+     * @return a new stopwatch that has not been started yet
+     */
+    public static Stopwatch createUnstarted(@NonNull Ticker ticker) {
+        return new Stopwatch(ticker);
+    }
+
+    /**
+     * Start measuring. Time measured earlier is kept, call {@link #reset()} to clear it.
+     *
+     * @return this stopwatch
+     * @throws IllegalStateException if the stopwatch is already running
+     */
+    public Stopwatch start() {
+        if (running) {
+            throw new IllegalStateException("Stopwatch is already running");
+        }
+        running = true;
+        startNanos = ticker.nanoTime();
+        return this;
+    }
+
+    /**
+     * Stop measuring. The elapsed time stays available until the stopwatch is reset.
+     *
+     * @return this stopwatch
+     * @throws IllegalStateException if the stopwatch is not running
+     */
+    public Stopwatch stop() {
+        if (!running) {
+            throw new IllegalStateException("Stopwatch is not running");
+        }
+        elapsedNanos += ticker.nanoTime() - startNanos;
+        running = false;
+        return this;
+    }
+
+    /**
+     * Clear the elapsed time and stop the stopwatch
+     *
+     * @return this stopwatch
+     */
+    public Stopwatch reset() {
+        running = false;
+        elapsedNanos = 0;
+        return this;
+    }
+
+    public boolean isRunning() {
+        return running;
+    }
+
+    /**
+     * @return the total measured time in nanoseconds, including the current run if running
+     */
+    public long elapsedNanos() {
+        return running ? elapsedNanos + ticker.nanoTime() - startNanos : elapsedNanos;
+    }
+
+    /**
+     * @param unit the unit to express the elapsed time in
+     * @return the total measured time, truncated to the given unit
+     */
+    public long elapsed(@NonNull TimeUnit unit) {
+        return unit.convert(elapsedNanos(), TimeUnit.NANOSECONDS);
+    }
+
+    /**
+     * @return the total measured time as a Duration
+     */
+    public Duration elapsed() {
+        return Duration.ofNanos(elapsedNanos());
+    }
+
+    @Override
+    public String toString() {
+        return elapsed().toString();
+    }
+}
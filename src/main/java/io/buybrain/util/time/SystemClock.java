@@ -24,6 +24,11 @@ public class SystemClock implements Clock {
         return Instant.now();
     }
 
+    @Override
+    public long nowMillis() {
+        return System.currentTimeMillis();
+    }
+
     public static Clock get() {
         return INSTANCE;
     }
@@ -0,0 +1,17 @@
+package io.buybrain.util.time;
+
+public class SystemTicker implements Ticker {
+    private static Ticker INSTANCE = new SystemTicker();
+
+    private SystemTicker() {
+    }
+
+    @Override
+    public long nanoTime() {
+        return System.nanoTime();
+    }
+
+    public static Ticker get() {
+        return INSTANCE;
+    }
+}
@@ -0,0 +1,12 @@
+package io.buybrain.util.time;
+
+/**
+ * Source of monotonic time, for measuring elapsed durations. Unlike {@link Clock}, a ticker is not related to wall
+ * clock time; only differences between readings are meaningful.
+ */
+public interface Ticker {
+    /**
+     * @return the current reading in nanoseconds, relative to an arbitrary fixed origin
+     */
+    long nanoTime();
+}
@@ -0,0 +1,143 @@
+package io.buybrain.util.time;
+
+import lombok.NonNull;
+import lombok.SneakyThrows;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Thread safe clock for testing concurrent code in virtual time. Unlike {@link MockClock}, {@link #sleep(Duration)}
+ * blocks the calling thread until virtual time has reached its wake-up time. Time moves forward in two ways:
+ *
+ * <ul>
+ * <li>explicitly, by calling {@link #advance(Duration)}</li>
+ * <li>automatically, once every registered thread is sleeping. Time then jumps to the earliest wake-up time, so
+ * sleeping threads wake up one by one in virtual time order.</li>
+ * </ul>
+ *
+ * Threads take part in automatic advancing by calling {@link #register()}, and must call {@link #unregister()} when
+ * they are done, since time can't advance automatically while a registered thread is busy. Minutes of simulated
+ * waiting then take no real time at all.
+ */
+public class VirtualClock implements Clock, Ticker {
+    private long nanos;
+    private final Set<Thread> registered = new HashSet<>();
+    private final Map<Thread, Long> sleeping = new HashMap<>();
+
+    public VirtualClock() {
+        this(Instant.EPOCH);
+    }
+
+    public VirtualClock(@NonNull Instant time) {
+        this.nanos = time.getEpochSecond() * 1_000_000_000L + time.getNano();
+    }
+
+    @Override
+    public synchronized Instant now() {
+        return Instant.ofEpochSecond(Math.floorDiv(nanos, 1_000_000_000L), Math.floorMod(nanos, 1_000_000_000L));
+    }
+
+    @Override
+    public synchronized long nowNanos() {
+        return nanos;
+    }
+
+    @Override
+    public long nowMillis() {
+        return Math.floorDiv(nowNanos(), 1_000_000L);
+    }
+
+    @Override
+    public long nanoTime() {
+        return nowNanos();
+    }
+
+    /**
+     * Block the calling thread until virtual time has moved forward by the given duration
+     *
+     * @param duration the duration to sleep
+     */
+    @Override
+    @SneakyThrows
+    public synchronized void sleep(@NonNull Duration duration) {
+        long wakeAt = nanos + Math.max(0, duration.toNanos());
+        Thread current = Thread.currentThread();
+        sleeping.put(current, wakeAt);
+        try {
+            notifyAll();
+            autoAdvance();
+            while (nanos < wakeAt) {
+                wait();
+            }
+        } finally {
+            sleeping.remove(current);
+        }
+    }
+
+    /**
+     * Move virtual time forward, waking up all threads whose sleep ends within the duration
+     *
+     * @param duration the duration to move forward
+     */
+    public synchronized void advance(@NonNull Duration duration) {
+        if (duration.isNegative()) {
+            throw new IllegalArgumentException("Time can't move backwards");
+        }
+        nanos += duration.toNanos();
+        notifyAll();
+    }
+
+    /**
+     * Register the calling thread for automatic advancing of time
+     */
+    public synchronized void register() {
+        registered.add(Thread.currentThread());
+    }
+
+    /**
+     * Unregister the calling thread. If all remaining registered threads are sleeping, time advances.
+     */
+    public synchronized void unregister() {
+        registered.remove(Thread.currentThread());
+        autoAdvance();
+    }
+
+    /**
+     * Block until at least the given number of threads is sleeping. Useful to make sure threads have reached a certain
+     * point before advancing time explicitly.
+     *
+     * @param count the number of sleeping threads to wait for
+     */
+    @SneakyThrows
+    public synchronized void awaitSleepers(int count) {
+        while (sleeping.size() < count) {
+            wait();
+        }
+    }
+
+    /**
+     * @return the number of threads that are currently sleeping
+     */
+    public synchronized int sleeperCount() {
+        return sleeping.size();
+    }
+
+    private void autoAdvance() {
+        if (registered.isEmpty() || !sleeping.keySet().containsAll(registered)) {
+            return;
+        }
+        long earliest = Long.MAX_VALUE;
+        for (long wakeAt : sleeping.values()) {
+            earliest = Math.min(earliest, wakeAt);
+        }
+        if (earliest > nanos) {
+            nanos = earliest;
+            notifyAll();
+        }
+    }
+}
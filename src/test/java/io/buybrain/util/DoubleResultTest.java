@@ -0,0 +1,74 @@
+package io.buybrain.util;
+
+import lombok.val;
+import org.testng.annotations.Test;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.core.Is.is;
+
+public class DoubleResultTest {
+    @Test
+    public void testMapOk() throws Throwable {
+        val res = DoubleResult.ok(41.5).map(val -> DoubleResult.ok(val + 1));
+        assertThat(res.get(), is(42.5));
+    }
+
+    @Test(expectedExceptions = Exception.class)
+    public void testMapRethrow() {
+        DoubleResult.ok(41.5).map(val -> {
+            throw new Exception("meh");
+        });
+    }
+
+    @Test
+    public void testErrPropagates() {
+        val error = new Exception("meh");
+        val res = DoubleResult.err(error)
+            .map(val -> DoubleResult.ok(val + 1))
+            .tryMap(val -> val + 1);
+        assertThat(res.isOk(), is(false));
+        assertThat(res.getError(), is(error));
+        assertThat(res.tryMapToObj(Double::toString).getError(), is(error));
+    }
+
+    @Test
+    public void testTryMap() {
+        assertThat(DoubleResult.ok(41.5).tryMap(val -> val + 1), is(DoubleResult.ok(42.5)));
+
+        val res = DoubleResult.ok(41.5).tryMap(val -> {
+            throw new Exception("meh");
+        });
+        assertThat(res.isOk(), is(false));
+        assertThat(res.getError().getMessage(), is("meh"));
+    }
+
+    @Test
+    public void testTryMapToObj() {
+        assertThat(DoubleResult.ok(42.5).tryMapToObj(Double::toString), is(Result.ok("42.5")));
+        assertThat(DoubleResult.err(new Exception("meh")).tryMapToObj(Double::toString).isOk(), is(false));
+    }
+
+    @Test
+    public void testOrElse() {
+        assertThat(DoubleResult.err(new Exception("meh")).orElse(42.5), is(DoubleResult.ok(42.5)));
+        assertThat(DoubleResult.ok(41.5).orElse(42.5), is(DoubleResult.ok(41.5)));
+    }
+
+    @Test(expectedExceptions = Exception.class, expectedExceptionsMessageRegExp = "meh")
+    public void testGetOnErrorResult() throws Throwable {
+        DoubleResult.err(new Exception("meh")).get();
+    }
+
+    @Test
+    public void testTrying() {
+        assertThat(DoubleResult.trying(() -> Double.parseDouble("42.5")), is(DoubleResult.ok(42.5)));
+        assertThat(DoubleResult.trying(() -> Double.parseDouble("nope")).isOk(), is(false));
+    }
+
+    @Test
+    public void testConversion() {
+        assertThat(DoubleResult.ok(42.5).boxed(), is(Result.ok(42.5)));
+        assertThat(DoubleResult.of(Result.ok(42.5)), is(DoubleResult.ok(42.5)));
+        assertThat(DoubleResult.of(Result.err(new Exception("meh"))).getError().getMessage(), is("meh"));
+    }
+}
@@ -0,0 +1,75 @@
+package io.buybrain.util;
+
+import lombok.val;
+import org.testng.annotations.Test;
+
+import java.util.HashMap;
+import java.util.Map;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.core.Is.is;
+import static org.hamcrest.core.StringContains.containsString;
+import static org.testng.Assert.fail;
+
+public class EnvSnapshotTest {
+    private final Map<String, String> env = new HashMap<String, String>() {{
+        put("STR", "hello");
+        put("NUM", "123");
+        put("BOOL1", "Yes");
+        put("BOOL2", "Nope");
+    }};
+
+    @Test
+    public void testTypedReads() {
+        val SUT = EnvSnapshot.builder()
+            .string("STR")
+            .string("STR2", "bar")
+            .integer("NUM")
+            .integer("NUM2", 1234)
+            .bool("BOOL1")
+            .bool("BOOL2")
+            .bool("BOOL3", true)
+            .load(env);
+
+        assertThat(SUT.getString("STR"), is("hello"));
+        assertThat(SUT.getString("STR2"), is("bar"));
+        assertThat(SUT.getInt("NUM"), is(123));
+        assertThat(SUT.getInt("NUM2"), is(1234));
+        assertThat(SUT.getString("NUM"), is("123"));
+        assertThat(SUT.getBoolean("BOOL1"), is(true));
+        assertThat(SUT.getBoolean("BOOL2"), is(false));
+        assertThat(SUT.getBoolean("BOOL3"), is(true));
+    }
+
+    @Test
+    public void testAllErrorsReportedTogether() {
+        try {
+            EnvSnapshot.builder()
+                .string("NOPE1")
+                .integer("STR")
+                .integer("NOPE2")
+                .integer("NUM")
+                .load(env);
+            fail("Expected the snapshot to fail loading");
+        } catch (IllegalArgumentException ex) {
+            assertThat(ex.getMessage(), containsString("NOPE1 is not set"));
+            assertThat(ex.getMessage(), containsString("STR is not an integer"));
+            assertThat(ex.getMessage(), containsString("NOPE2 is not set"));
+        }
+    }
+
+    @Test(expectedExceptions = IllegalArgumentException.class)
+    public void testUndeclaredKey() {
+        EnvSnapshot.builder().string("STR").load(env).getString("NUM");
+    }
+
+    @Test(expectedExceptions = IllegalArgumentException.class)
+    public void testWrongType() {
+        EnvSnapshot.builder().string("NUM").load(env).getInt("NUM");
+    }
+
+    @Test(expectedExceptions = IllegalArgumentException.class)
+    public void testDuplicateDeclaration() {
+        EnvSnapshot.builder().string("STR").integer("STR", 1);
+    }
+}
@@ -13,6 +13,7 @@ public class EnvTest {
         put("NUM", "123");
         put("BOOL1", "Yes");
         put("BOOL2", "Nope");
+        put("NULL", null);
     }});
 
     @Test
@@ -45,6 +46,11 @@ public class EnvTest {
         assertThat(SUT.getInt("NOPE", 1234), is(1234));
     }
 
+    @Test(expectedExceptions = NumberFormatException.class)
+    public void testGetIntWithDefaultNullValue() {
+        SUT.getInt("NULL", 1234);
+    }
+
     @Test(expectedExceptions = NumberFormatException.class)
     public void testGetIntInvalidValue() {
         SUT.getInt("STR");
@@ -57,4 +63,9 @@ public class EnvTest {
         assertThat(SUT.getBoolean("BOOL3", true), is(true));
         assertThat(SUT.getBoolean("BOOL3", false), is(false));
     }
+
+    @Test(expectedExceptions = NullPointerException.class)
+    public void testGetBoolWithDefaultNullValue() {
+        SUT.getBoolean("NULL", true);
+    }
 }
@@ -1,12 +1,21 @@
 package io.buybrain.util;
 
+import lombok.val;
 import org.testng.annotations.Test;
 
+import java.io.IOException;
+import java.util.stream.IntStream;
+import java.util.stream.LongStream;
+import java.util.stream.Stream;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutionException;
 import java.util.concurrent.atomic.AtomicInteger;
 
 import static org.hamcrest.CoreMatchers.instanceOf;
 import static org.hamcrest.CoreMatchers.is;
+import static org.hamcrest.CoreMatchers.sameInstance;
 import static org.hamcrest.MatcherAssert.assertThat;
+import static org.testng.Assert.fail;
 
 public class ExceptionsTest {
     @Test
@@ -72,4 +81,89 @@ public class ExceptionsTest {
             assertThat(ex.getCause().getMessage(), is("42"));
         }
     }
+
+    @Test
+    public void testSneakySupplier() {
+        assertThat(Exceptions.sneakyR(() -> 42), is(42));
+
+        val original = new IOException("42");
+        try {
+            Exceptions.sneakyR(() -> {
+                throw original;
+            });
+            fail();
+        } catch (Exception ex) {
+            assertThat(ex, sameInstance(original));
+        }
+    }
+
+    @Test
+    public void testSneakyFunctionAndConsumer() {
+        val original = new IOException("42");
+        try {
+            Exceptions.<Integer, Integer>sneakyR(a -> {
+                throw original;
+            }).apply(42);
+            fail();
+        } catch (Exception ex) {
+            assertThat(ex, sameInstance(original));
+        }
+
+        try {
+            Exceptions.<Integer>sneaky(a -> {
+                throw original;
+            }).accept(42);
+            fail();
+        } catch (Exception ex) {
+            assertThat(ex, sameInstance(original));
+        }
+    }
+
+    @Test
+    public void testSneakyRunnable() {
+        val original = new IOException("42");
+        try {
+            Exceptions.sneaky(() -> {
+                throw original;
+            });
+            fail();
+        } catch (Exception ex) {
+            assertThat(ex, sameInstance(original));
+        }
+    }
+
+    @Test
+    public void testUnwrap() {
+        val root = new IOException("42");
+        val wrapped = new CompletionException(new RuntimeException(new ExecutionException(root)));
+        assertThat(Exceptions.unwrap(wrapped), sameInstance(root));
+
+        val custom = new IllegalStateException(root);
+        assertThat(Exceptions.unwrap(custom), sameInstance(custom));
+    }
+
+    @Test
+    public void testRethrowPrimitiveAdapters() {
+        int sum = IntStream.range(0, 5)
+            .filter(Exceptions.rethrowIntPredicate(i -> i % 2 == 0))
+            .map(Exceptions.rethrowIntUnaryOperator(i -> i * 10))
+            .sum();
+        assertThat(sum, is(60));
+
+        long total = Stream.of("1", "2", "3").mapToLong(Exceptions.rethrowToLongFunction(Long::parseLong)).sum();
+        assertThat(total, is(6L));
+
+        AtomicInteger sidefx = new AtomicInteger();
+        LongStream.of(42).forEach(Exceptions.rethrowLongConsumer(l -> sidefx.set((int) l)));
+        assertThat(sidefx.get(), is(42));
+
+        try {
+            IntStream.of(42).mapToObj(Exceptions.rethrowIntFunction(i -> {
+                throw new Exception(Integer.toString(i));
+            })).toArray();
+        } catch (Exception ex) {
+            assertThat(ex, instanceOf(RuntimeException.class));
+            assertThat(ex.getCause().getMessage(), is("42"));
+        }
+    }
 }
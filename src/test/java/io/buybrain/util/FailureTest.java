@@ -0,0 +1,52 @@
+package io.buybrain.util;
+
+import lombok.val;
+import org.testng.annotations.Test;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.core.Is.is;
+import static org.hamcrest.core.IsSame.sameInstance;
+import static org.testng.Assert.fail;
+
+public class FailureTest {
+    @Test
+    public void testNoStackTrace() {
+        val failure = new Failure("not_found", "Record not found");
+        assertThat(failure.getStackTrace().length, is(0));
+        assertThat(failure.getCode(), is("not_found"));
+        assertThat(failure.getMessage(), is("Record not found"));
+        assertThat(failure.toString(), is("Failure[not_found]: Record not found"));
+    }
+
+    @Test
+    public void testWrap() {
+        val cause = new IllegalStateException("meh");
+        val failure = Failure.wrap(cause);
+        assertThat(failure.getStackTrace().length, is(0));
+        assertThat(failure.getCode(), is("java.lang.IllegalStateException"));
+        assertThat(failure.getMessage(), is("meh"));
+        assertThat(failure.getCause(), sameInstance(cause));
+        assertThat(Failure.wrap(failure), sameInstance(failure));
+    }
+
+    @Test
+    public void testResultFail() {
+        val res = Result.<Integer>fail("parse", "Not a number");
+        assertThat(res.isOk(), is(false));
+        assertThat(res.getError().getCode(), is("parse"));
+    }
+
+    @Test
+    public void testRethrowStackless() {
+        val cause = new Exception("meh");
+        try {
+            Exceptions.rethrowStacklessR(() -> {
+                throw cause;
+            });
+            fail();
+        } catch (Failure ex) {
+            assertThat(ex.getCause(), sameInstance(cause));
+            assertThat(ex.getStackTrace().length, is(0));
+        }
+    }
+}
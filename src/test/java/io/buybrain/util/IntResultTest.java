@@ -0,0 +1,63 @@
+package io.buybrain.util;
+
+import lombok.val;
+import org.testng.annotations.Test;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.core.Is.is;
+
+public class IntResultTest {
+    @Test
+    public void testMapOk() throws Throwable {
+        val res = IntResult.ok(41).map(val -> IntResult.ok(val + 1));
+        assertThat(res.get(), is(42));
+    }
+
+    @Test(expectedExceptions = Exception.class)
+    public void testMapRethrow() {
+        IntResult.ok(41).map(val -> {
+            throw new Exception("meh");
+        });
+    }
+
+    @Test
+    public void testTryMap() {
+        assertThat(IntResult.ok(41).tryMap(val -> val + 1), is(IntResult.ok(42)));
+
+        val res = IntResult.ok(41).tryMap(val -> {
+            throw new Exception("meh");
+        });
+        assertThat(res.isOk(), is(false));
+        assertThat(res.getError().getMessage(), is("meh"));
+    }
+
+    @Test
+    public void testTryMapToObj() {
+        assertThat(IntResult.ok(42).tryMapToObj(Integer::toString), is(Result.ok("42")));
+        assertThat(IntResult.err(new Exception("meh")).tryMapToObj(Integer::toString).isOk(), is(false));
+    }
+
+    @Test
+    public void testOrElse() {
+        assertThat(IntResult.err(new Exception("meh")).orElse(42), is(IntResult.ok(42)));
+        assertThat(IntResult.ok(41).orElse(42), is(IntResult.ok(41)));
+    }
+
+    @Test(expectedExceptions = Exception.class)
+    public void testGetOnErrorResult() throws Throwable {
+        IntResult.err(new Exception("meh")).get();
+    }
+
+    @Test
+    public void testTrying() {
+        assertThat(IntResult.trying(() -> Integer.parseInt("42")), is(IntResult.ok(42)));
+        assertThat(IntResult.trying(() -> Integer.parseInt("nope")).isOk(), is(false));
+    }
+
+    @Test
+    public void testConversion() {
+        assertThat(IntResult.ok(42).boxed(), is(Result.ok(42)));
+        assertThat(IntResult.of(Result.ok(42)), is(IntResult.ok(42)));
+        assertThat(IntResult.of(Result.err(new Exception("meh"))).getError().getMessage(), is("meh"));
+    }
+}
@@ -0,0 +1,118 @@
+package io.buybrain.util;
+
+import lombok.val;
+import org.testng.annotations.Test;
+
+import java.util.ArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static io.buybrain.util.Result.err;
+import static io.buybrain.util.Result.ok;
+import static java.util.concurrent.Executors.newFixedThreadPool;
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.core.Is.is;
+
+public class LazyResultTest {
+    @Test
+    public void testNothingRunsUntilInspected() throws Throwable {
+        val calls = new AtomicInteger();
+        val res = LazyResult.trying(() -> {
+            calls.incrementAndGet();
+            return 41;
+        })
+            .tryMap(val -> val + 1)
+            .map(val -> ok(val * 2));
+
+        assertThat(calls.get(), is(0));
+        assertThat(res.isEvaluated(), is(false));
+
+        assertThat(res.get(), is(84));
+        assertThat(res.isOk(), is(true));
+        assertThat(calls.get(), is(1));
+    }
+
+    @Test
+    public void testUntakenBranchIsSkipped() {
+        val calls = new AtomicInteger();
+        val res = LazyResult.of(ok(42)).orElse(() -> {
+            calls.incrementAndGet();
+            return ok(43);
+        });
+
+        assertThat(res.toResult(), is(ok(42)));
+        assertThat(calls.get(), is(0));
+    }
+
+    @Test
+    public void testErrors() {
+        val res = LazyResult.<Integer>trying(() -> {
+            throw new Exception("meh");
+        }).tryMap(val -> val + 1);
+
+        assertThat(res.isOk(), is(false));
+        assertThat(res.getError().getMessage(), is("meh"));
+        assertThat(res.orElse(42).toResult(), is(ok(42)));
+        assertThat(res.mapErr(e -> ok(e.getMessage().length())).toResult(), is(ok(3)));
+    }
+
+    @Test
+    public void testThrowingFunctionBecomesError() {
+        val res = LazyResult.of(ok(41)).map(val -> {
+            throw new Exception("meh");
+        });
+        assertThat(res.getError().getMessage(), is("meh"));
+    }
+
+    @Test
+    public void testAndThen() {
+        assertThat(LazyResult.of(ok()).andThen(() -> ok(42)).toResult(), is(ok(42)));
+        assertThat(LazyResult.of(err(new Exception("meh"))).andThen(() -> ok(42)).isOk(), is(false));
+    }
+
+    @Test
+    public void testComputedOnceAcrossThreads() throws Exception {
+        val calls = new AtomicInteger();
+        val start = new CountDownLatch(1);
+        val res = LazyResult.trying(() -> {
+            calls.incrementAndGet();
+            Thread.sleep(50);
+            return 42;
+        });
+
+        ExecutorService executor = newFixedThreadPool(8);
+        val futures = new ArrayList<Future<Boolean>>();
+        for (int i = 0; i < 8; i++) {
+            futures.add(executor.submit(() -> {
+                start.await();
+                return res.isOk();
+            }));
+        }
+        start.countDown();
+        for (Future<Boolean> future : futures) {
+            assertThat(future.get(), is(true));
+        }
+        executor.shutdown();
+
+        assertThat(calls.get(), is(1));
+    }
+
+    @Test
+    public void testDeepChain() throws Throwable {
+        LazyResult<Integer> res = LazyResult.trying(() -> 0);
+        for (int i = 0; i < 100_000; i++) {
+            res = res.tryMap(val -> val + 1);
+        }
+        val middle = res;
+        for (int i = 0; i < 100_000; i++) {
+            res = res.tryMap(val -> val + 1);
+        }
+
+        // Evaluating part of the chain first leaves an evaluated ancestor to continue from
+        assertThat(middle.get(), is(100_000));
+        assertThat(res.isOk(), is(true));
+        assertThat(res.get(), is(200_000));
+    }
+}
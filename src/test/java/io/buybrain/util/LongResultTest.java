@@ -0,0 +1,74 @@
+package io.buybrain.util;
+
+import lombok.val;
+import org.testng.annotations.Test;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.core.Is.is;
+
+public class LongResultTest {
+    @Test
+    public void testMapOk() throws Throwable {
+        val res = LongResult.ok(41).map(val -> LongResult.ok(val + 1));
+        assertThat(res.get(), is(42L));
+    }
+
+    @Test(expectedExceptions = Exception.class)
+    public void testMapRethrow() {
+        LongResult.ok(41).map(val -> {
+            throw new Exception("meh");
+        });
+    }
+
+    @Test
+    public void testErrPropagates() {
+        val error = new Exception("meh");
+        val res = LongResult.err(error)
+            .map(val -> LongResult.ok(val + 1))
+            .tryMap(val -> val + 1);
+        assertThat(res.isOk(), is(false));
+        assertThat(res.getError(), is(error));
+        assertThat(res.tryMapToObj(Long::toString).getError(), is(error));
+    }
+
+    @Test
+    public void testTryMap() {
+        assertThat(LongResult.ok(41).tryMap(val -> val + 1), is(LongResult.ok(42)));
+
+        val res = LongResult.ok(41).tryMap(val -> {
+            throw new Exception("meh");
+        });
+        assertThat(res.isOk(), is(false));
+        assertThat(res.getError().getMessage(), is("meh"));
+    }
+
+    @Test
+    public void testTryMapToObj() {
+        assertThat(LongResult.ok(42).tryMapToObj(Long::toString), is(Result.ok("42")));
+        assertThat(LongResult.err(new Exception("meh")).tryMapToObj(Long::toString).isOk(), is(false));
+    }
+
+    @Test
+    public void testOrElse() {
+        assertThat(LongResult.err(new Exception("meh")).orElse(42), is(LongResult.ok(42)));
+        assertThat(LongResult.ok(41).orElse(42), is(LongResult.ok(41)));
+    }
+
+    @Test(expectedExceptions = Exception.class, expectedExceptionsMessageRegExp = "meh")
+    public void testGetOnErrorResult() throws Throwable {
+        LongResult.err(new Exception("meh")).get();
+    }
+
+    @Test
+    public void testTrying() {
+        assertThat(LongResult.trying(() -> Long.parseLong("42")), is(LongResult.ok(42)));
+        assertThat(LongResult.trying(() -> Long.parseLong("nope")).isOk(), is(false));
+    }
+
+    @Test
+    public void testConversion() {
+        assertThat(LongResult.ok(42).boxed(), is(Result.ok(42L)));
+        assertThat(LongResult.of(Result.ok(42L)), is(LongResult.ok(42)));
+        assertThat(LongResult.of(Result.err(new Exception("meh"))).getError().getMessage(), is("meh"));
+    }
+}
@@ -0,0 +1,102 @@
+package io.buybrain.util;
+
+import lombok.val;
+import org.testng.annotations.Test;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+
+import static io.buybrain.util.Result.err;
+import static io.buybrain.util.Result.ok;
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.core.Is.is;
+import static org.testng.Assert.fail;
+
+public class ResultFutureTest {
+    @Test
+    public void testChainRunsOnCompletion() {
+        val source = new CompletableFuture<Integer>();
+        val chained = Result.async(source)
+            .tryMap(val -> val + 1)
+            .map(val -> ok(val * 2))
+            .toCompletableFuture();
+
+        assertThat(chained.isDone(), is(false));
+        source.complete(20);
+        assertThat(chained.getNow(null), is(42));
+    }
+
+    @Test
+    public void testExceptionalCompletionBecomesError() {
+        val source = new CompletableFuture<Integer>();
+        val res = Result.async(source).tryMap(val -> val + 1).toStage().toCompletableFuture();
+
+        source.completeExceptionally(new Exception("meh"));
+        assertThat(res.getNow(null).getError().getMessage(), is("meh"));
+    }
+
+    @Test
+    public void testThrowingFunctionBecomesError() {
+        val res = ResultFuture.completed(ok(41))
+            .map(val -> {
+                throw new Exception("meh");
+            })
+            .toStage().toCompletableFuture();
+
+        assertThat(res.getNow(null).getError().getMessage(), is("meh"));
+    }
+
+    @Test
+    public void testOrElseAndMapErr() {
+        val failed = ResultFuture.<Integer>completed(err(new Exception("meh")));
+
+        assertThat(failed.orElse(42).toCompletableFuture().getNow(null), is(42));
+        assertThat(failed.orElse(() -> ok(43)).toCompletableFuture().getNow(null), is(43));
+        assertThat(
+            failed.mapErr(e -> ok(e.getMessage().length())).toCompletableFuture().getNow(null),
+            is(3)
+        );
+    }
+
+    @Test
+    public void testMapAsync() {
+        val inner = new CompletableFuture<String>();
+        val res = ResultFuture.completed(ok(42))
+            .mapAsync(val -> inner.thenApply(s -> s + val))
+            .toCompletableFuture();
+
+        assertThat(res.isDone(), is(false));
+        inner.complete("answer ");
+        assertThat(res.getNow(null), is("answer 42"));
+    }
+
+    @Test(expectedExceptions = ExecutionException.class)
+    public void testToCompletableFutureFailsOnError() throws Exception {
+        ResultFuture.completed(err(new Exception("meh"))).toCompletableFuture().get();
+    }
+
+    @Test
+    public void testToCompletableFutureFailsOnNullResult() throws Exception {
+        val res = ResultFuture.completed(ok(1)).map(val -> null).toCompletableFuture();
+        try {
+            res.get(1, TimeUnit.SECONDS);
+            fail();
+        } catch (ExecutionException ex) {
+            assertThat(ex.getCause() instanceof NullPointerException, is(true));
+        }
+    }
+
+    @Test
+    public void testToStageIsACopy() {
+        val SUT = ResultFuture.completed(ok(42));
+        SUT.toStage().toCompletableFuture().obtrudeValue(ok(0));
+        assertThat(SUT.tryMap(val -> val + 1).toCompletableFuture().getNow(null), is(43));
+    }
+
+    @Test
+    public void testTrying() throws Exception {
+        val res = ResultFuture.trying(() -> 42, Runnable::run).toCompletableFuture().get();
+        assertThat(res, is(42));
+    }
+}
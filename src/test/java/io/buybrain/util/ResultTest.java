@@ -7,6 +7,8 @@ import static io.buybrain.util.Result.err;
 import static io.buybrain.util.Result.ok;
 import static org.hamcrest.MatcherAssert.assertThat;
 import static org.hamcrest.core.Is.is;
+import static org.hamcrest.core.IsSame.sameInstance;
+import static org.testng.Assert.fail;
 
 public class ResultTest {
     @Test
@@ -85,4 +87,33 @@ public class ResultTest {
     public void testOrElseDefaultValue() {
         assertThat(err(new Exception("meh")).orElse(42), is(ok(42)));
     }
+
+    @Test
+    public void testEmptyOkIsShared() {
+        assertThat(ok(), sameInstance(ok()));
+        assertThat(ok(41).andThen(val -> {
+        }), sameInstance(ok()));
+    }
+
+    @Test
+    public void testTryMapErr() {
+        assertThat(ok(42).tryMapErr(err -> 43), is(ok(42)));
+        assertThat(err(new Exception("meh")).tryMapErr(err -> 43), is(ok(43)));
+        assertThat(err(new Exception("meh")).tryMapErr(err -> {
+            throw new Exception("bleh");
+        }).getError().getMessage(), is("bleh"));
+    }
+
+    @Test
+    public void testMapFunctionRethrowsOriginal() {
+        val original = new Exception("meh");
+        try {
+            ok(41).map(val -> {
+                throw original;
+            });
+            fail();
+        } catch (Exception ex) {
+            assertThat(ex, sameInstance(original));
+        }
+    }
 }
@@ -0,0 +1,97 @@
+package io.buybrain.util;
+
+import lombok.val;
+import org.testng.annotations.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.IntStream;
+import java.util.stream.Stream;
+
+import static io.buybrain.util.Result.err;
+import static io.buybrain.util.Result.ok;
+import static java.util.Arrays.asList;
+import static java.util.stream.Collectors.toList;
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.lessThan;
+import static org.hamcrest.core.Is.is;
+
+public class ResultsTest {
+    @Test
+    public void testSequence() {
+        List<Result<Integer, ?>> allOk = asList(ok(1), ok(2), ok(3));
+        assertThat(Results.sequence(allOk), is(ok(asList(1, 2, 3))));
+
+        List<Result<Integer, ?>> someFailed = asList(ok(1), err(new Exception("first")), err(new Exception("second")));
+        assertThat(Results.sequence(someFailed).getError().getMessage(), is("first"));
+    }
+
+    @Test
+    public void testTraverse() {
+        assertThat(Results.traverse(asList("1", "2"), Integer::parseInt), is(ok(asList(1, 2))));
+
+        val calls = new AtomicInteger();
+        val res = Results.traverse(asList("1", "x", "3"), s -> {
+            calls.incrementAndGet();
+            return Integer.parseInt(s);
+        });
+        assertThat(res.getError() instanceof NumberFormatException, is(true));
+        assertThat(calls.get(), is(2));
+    }
+
+    @Test
+    public void testTraverseAll() {
+        val res = Results.traverseAll(asList("1", "x", "3", "y"), Integer::parseInt);
+        assertThat(res.getSuccesses(), is(asList(1, 3)));
+        assertThat(res.getErrors().size(), is(2));
+        assertThat(res.isOk(), is(false));
+    }
+
+    @Test
+    public void testParallelTraverse() {
+        val items = IntStream.range(0, 10000).boxed().collect(toList());
+        val res = Results.parallelTraverse(items, i -> i * 2);
+        assertThat(res.isOk(), is(true));
+        assertThat(res.getUnsafe().get(1234), is(2468));
+    }
+
+    @Test
+    public void testParallelTraverseStopsEarly() {
+        val items = IntStream.range(0, 100000).boxed().collect(toList());
+        val calls = new AtomicInteger();
+        val res = Results.parallelTraverse(items, i -> {
+            calls.incrementAndGet();
+            throw new Exception("meh");
+        });
+        assertThat(res.getError().getMessage(), is("meh"));
+        assertThat(calls.get(), lessThan(items.size()));
+    }
+
+    @Test
+    public void testParallelTraverseAll() {
+        val items = IntStream.range(0, 10000).boxed().collect(toList());
+        val res = Results.parallelTraverseAll(items, i -> {
+            if (i % 10 == 0) {
+                throw new Exception(Integer.toString(i));
+            }
+            return i;
+        });
+        assertThat(res.getSuccesses().size(), is(9000));
+        assertThat(res.getErrors().size(), is(1000));
+        assertThat(res.getErrors().get(1).getMessage(), is("10"));
+    }
+
+    @Test
+    public void testPartitioning() {
+        val partition = Stream.of("1", "x", "3")
+            .map(s -> Result.trying(() -> Integer.parseInt(s)))
+            .collect(Results.partitioning());
+
+        assertThat(partition.getSuccesses(), is(asList(1, 3)));
+        assertThat(partition.getErrors().size(), is(1));
+
+        val empty = new ArrayList<Result<Integer, ?>>().stream().collect(Results.partitioning());
+        assertThat(empty.isOk(), is(true));
+    }
+}
@@ -0,0 +1,117 @@
+package io.buybrain.util;
+
+import lombok.val;
+import org.testng.annotations.Test;
+
+import java.util.ArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static java.util.concurrent.Executors.newFixedThreadPool;
+import static org.awaitility.Awaitility.await;
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.core.Is.is;
+import static org.hamcrest.core.IsSame.sameInstance;
+
+public class SingleFlightTest {
+    @Test
+    public void testConcurrentCallsShareExecution() throws Exception {
+        val SUT = new SingleFlight<String, Integer>();
+        val calls = new AtomicInteger();
+        val release = new CountDownLatch(1);
+
+        ExecutorService executor = newFixedThreadPool(8);
+        val futures = new ArrayList<Future<Result<Integer, ?>>>();
+        for (int i = 0; i < 8; i++) {
+            futures.add(executor.submit(() -> SUT.run("key", () -> {
+                calls.incrementAndGet();
+                release.await();
+                return 42;
+            })));
+        }
+
+        await().until(() -> calls.get() == 1 && SUT.inFlightCount() == 1);
+        release.countDown();
+        for (Future<Result<Integer, ?>> future : futures) {
+            assertThat(future.get(), is(Result.ok(42)));
+        }
+        executor.shutdown();
+
+        assertThat(calls.get(), is(1));
+        assertThat(SUT.inFlightCount(), is(0));
+    }
+
+    @Test
+    public void testSequentialCallsRunAgain() {
+        val SUT = new SingleFlight<String, Integer>();
+        val calls = new AtomicInteger();
+        SUT.run("key", calls::incrementAndGet);
+        SUT.run("key", calls::incrementAndGet);
+        assertThat(calls.get(), is(2));
+    }
+
+    @Test
+    public void testErrorsAreShared() throws Exception {
+        val SUT = new SingleFlight<String, Integer>();
+        val started = new CountDownLatch(1);
+        val release = new CountDownLatch(1);
+
+        ExecutorService executor = newFixedThreadPool(2);
+        Future<Result<Integer, ?>> first = executor.submit(() -> SUT.run("key", () -> {
+            started.countDown();
+            release.await();
+            throw new Exception("meh");
+        }));
+        started.await();
+        val secondThread = new AtomicReference<Thread>();
+        Future<Result<Integer, ?>> second = executor.submit(() -> {
+            secondThread.set(Thread.currentThread());
+            return SUT.run("key", () -> {
+                throw new Exception("not shared");
+            });
+        });
+
+        // Only complete the operation once the second caller is waiting for it
+        await().until(() -> secondThread.get() != null && secondThread.get().getState() == Thread.State.WAITING);
+        release.countDown();
+        val firstError = first.get().getError();
+        assertThat(firstError.getMessage(), is("meh"));
+        assertThat(second.get().getError(), sameInstance(firstError));
+        executor.shutdown();
+    }
+
+    @Test
+    public void testReentrantCallFailsFast() {
+        val SUT = new SingleFlight<String, Integer>();
+        val res = SUT.run("key", () -> SUT.run("key", () -> 42).get());
+        assertThat(res.getError() instanceof IllegalStateException, is(true));
+        assertThat(SUT.run("other", () -> SUT.run("key", () -> 42).get()), is(Result.ok(42)));
+    }
+
+    @Test
+    public void testAsync() {
+        val SUT = new SingleFlight<String, Integer>();
+        val calls = new AtomicInteger();
+        val tasks = new ArrayList<Runnable>();
+
+        val first = SUT.runAsync("key", calls::incrementAndGet, tasks::add).toCompletableFuture();
+        val second = SUT.runAsync("key", calls::incrementAndGet, tasks::add).toCompletableFuture();
+
+        assertThat(tasks.size(), is(1));
+        assertThat(first.isDone(), is(false));
+        tasks.get(0).run();
+
+        assertThat(first.getNow(null), is(1));
+        assertThat(second.getNow(null), is(1));
+        assertThat(calls.get(), is(1));
+    }
+
+    @Test
+    public void testCoalescingFunction() throws Throwable {
+        val func = SingleFlight.<Integer, Integer>coalescing(key -> key * 2);
+        assertThat(func.apply(21), is(42));
+    }
+}
@@ -0,0 +1,119 @@
+package io.buybrain.util;
+
+import lombok.val;
+import org.testng.annotations.Test;
+
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.IntStream;
+import java.util.stream.Stream;
+
+import static java.util.Arrays.asList;
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.core.Is.is;
+
+public class ThrowingStreamTest {
+    @Test
+    public void testMapCollectsErrorsPerElement() {
+        val results = ThrowingStream.of(Stream.of("1", "x", "3"))
+            .map(Integer::parseInt)
+            .map(i -> i * 2)
+            .toList();
+
+        assertThat(results.size(), is(3));
+        assertThat(results.get(0), is(Result.ok(2)));
+        assertThat(results.get(1).getError() instanceof NumberFormatException, is(true));
+        assertThat(results.get(2), is(Result.ok(6)));
+    }
+
+    @Test
+    public void testParallelPartition() {
+        val partition = ThrowingStream.of(IntStream.range(0, 10000).boxed())
+            .parallel()
+            .map(i -> {
+                if (i % 100 == 0) {
+                    throw new Exception(Integer.toString(i));
+                }
+                return i;
+            })
+            .partition();
+
+        assertThat(partition.getSuccesses().size(), is(9900));
+        assertThat(partition.getErrors().size(), is(100));
+        assertThat(partition.getErrors().get(1).getMessage(), is("100"));
+    }
+
+    @Test
+    public void testForEach() {
+        val sum = new AtomicInteger();
+        val errors = ThrowingStream.of(Stream.of(1, 2, 3, 4)).forEach(i -> {
+            if (i == 3) {
+                throw new Exception("meh");
+            }
+            sum.addAndGet(i);
+        });
+
+        assertThat(sum.get(), is(7));
+        assertThat(errors.size(), is(1));
+        assertThat(errors.get(0).getMessage(), is("meh"));
+    }
+
+    @Test
+    public void testMaxErrors() {
+        val calls = new AtomicInteger();
+        val partition = ThrowingStream.of(IntStream.range(0, 10).boxed())
+            .maxErrors(2)
+            .map(i -> {
+                calls.incrementAndGet();
+                throw new Exception("meh");
+            })
+            .partition();
+
+        assertThat(calls.get(), is(2));
+        assertThat(partition.getErrors().size(), is(3));
+        assertThat(partition.getErrors().get(2), is(ThrowingStream.CANCELLED));
+    }
+
+    @Test
+    public void testMaxErrorsStopsSource() {
+        val pulled = new AtomicInteger();
+        val results = ThrowingStream.of(Stream.iterate(0, i -> i + 1).peek(i -> pulled.incrementAndGet()))
+            .map(i -> {
+                if (i % 2 == 1) {
+                    throw new Exception("odd");
+                }
+                return i;
+            })
+            .maxErrors(3)
+            .toList();
+
+        // 0 to 5 are processed, and 6 is pulled to find out there's more to skip
+        assertThat(results.size(), is(7));
+        assertThat(results.get(6).getError(), is(ThrowingStream.CANCELLED));
+        assertThat(pulled.get(), is(7));
+    }
+
+    @Test
+    public void testMaxErrorsDoesNotAffectOtherPipelines() {
+        val base = ThrowingStream.of(Stream.of(1, 2, 3));
+        base.maxErrors(1);
+        val results = base
+            .map(i -> {
+                throw new Exception("meh");
+            })
+            .toList();
+
+        assertThat(results.size(), is(3));
+        assertThat(results.get(2).getError().getMessage(), is("meh"));
+    }
+
+    @Test
+    public void testOfResults() {
+        val res = ThrowingStream.ofResults(Stream.of(Result.ok(1), Result.err(new Exception("meh"))))
+            .map(i -> i + 1)
+            .toList();
+
+        assertThat(res.get(0), is(Result.ok(2)));
+        assertThat(res.get(1).getError().getMessage(), is("meh"));
+        assertThat(ThrowingStream.of(Stream.of(1)).map(i -> i).partition().getSuccesses(), is(asList(1)));
+    }
+}
@@ -0,0 +1,168 @@
+package io.buybrain.util.cache;
+
+import io.buybrain.util.function.ThrowingFunction;
+import io.buybrain.util.time.MockClock;
+import lombok.val;
+import org.testng.annotations.Test;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.lessThanOrEqualTo;
+import static org.hamcrest.core.Is.is;
+
+public class CachedFunctionTest {
+    @Test
+    public void testCachesValues() throws Throwable {
+        val loads = new AtomicInteger();
+        ThrowingFunction<Integer, Integer> loader = key -> {
+            loads.incrementAndGet();
+            return key * 2;
+        };
+        val SUT = Caches.cached(loader, new CacheSpec().maximumSize(100));
+
+        assertThat(SUT.apply(21), is(42));
+        assertThat(SUT.apply(21), is(42));
+        assertThat(loads.get(), is(1));
+
+        val stats = SUT.stats();
+        assertThat(stats.getHitCount(), is(1L));
+        assertThat(stats.getMissCount(), is(1L));
+        assertThat(stats.hitRate(), is(0.5));
+    }
+
+    @Test
+    public void testSizeIsBounded() throws Throwable {
+        val SUT = new CachedFunction<Integer, Integer>(key -> key, new CacheSpec().maximumSize(100));
+        for (int i = 0; i < 10000; i++) {
+            SUT.apply(i);
+        }
+        assertThat(SUT.size(), lessThanOrEqualTo(100));
+        assertThat(SUT.stats().getEvictionCount(), is(9900L));
+    }
+
+    @Test
+    public void testFrequentKeysSurviveScan() throws Throwable {
+        val loads = new AtomicInteger();
+        val SUT = new CachedFunction<Integer, Integer>(key -> {
+            loads.incrementAndGet();
+            return key;
+        }, new CacheSpec().maximumSize(100));
+
+        // Make keys 0 - 49 hot
+        for (int round = 0; round < 5; round++) {
+            for (int i = 0; i < 50; i++) {
+                SUT.apply(i);
+            }
+        }
+        // Scan through ten times as many keys as fit, each used only once. This would flush a plain LRU cache.
+        for (int i = 1000; i < 2000; i++) {
+            SUT.apply(i);
+        }
+        loads.set(0);
+        for (int i = 0; i < 50; i++) {
+            SUT.apply(i);
+        }
+        assertThat(loads.get(), is(0));
+    }
+
+    @Test
+    public void testExpireAfterWrite() throws Throwable {
+        val clock = new MockClock();
+        val loads = new AtomicInteger();
+        val SUT = new CachedFunction<Integer, Integer>(
+            key -> loads.incrementAndGet(),
+            new CacheSpec().expireAfterWrite(Duration.ofMinutes(1)).clock(clock)
+        );
+
+        assertThat(SUT.apply(1), is(1));
+        clock.sleep(Duration.ofSeconds(59));
+        assertThat(SUT.apply(1), is(1));
+        clock.sleep(Duration.ofSeconds(1));
+        assertThat(SUT.apply(1), is(2));
+    }
+
+    @Test
+    public void testFailures() {
+        val clock = new MockClock();
+        val loads = new AtomicInteger();
+        ThrowingFunction<Integer, Integer> failing = key -> {
+            loads.incrementAndGet();
+            throw new Exception("meh");
+        };
+
+        val uncached = Caches.cached(failing, new CacheSpec());
+        assertThat(uncached.getResult(1).getError().getMessage(), is("meh"));
+        assertThat(uncached.getResult(1).isOk(), is(false));
+        assertThat(loads.get(), is(2));
+        assertThat(uncached.stats().getLoadFailureCount(), is(2L));
+
+        loads.set(0);
+        val negative = Caches.cached(failing, new CacheSpec().negativeTtl(Duration.ofSeconds(5)).clock(clock));
+        negative.getResult(1);
+        negative.getResult(1);
+        assertThat(loads.get(), is(1));
+        clock.sleep(Duration.ofSeconds(5));
+        negative.getResult(1);
+        assertThat(loads.get(), is(2));
+    }
+
+    @Test
+    public void testConcurrentMissesLoadOnce() throws Exception {
+        val loads = new ConcurrentHashMap<Integer, AtomicInteger>();
+        val SUT = new CachedFunction<Integer, Integer>(key -> {
+            loads.computeIfAbsent(key, k -> new AtomicInteger()).incrementAndGet();
+            Thread.sleep(10);
+            return key * 2;
+        }, new CacheSpec().maximumSize(100));
+
+        val start = new CountDownLatch(1);
+        val executor = Executors.newFixedThreadPool(8);
+        try {
+            List<Future<Boolean>> futures = new ArrayList<>();
+            for (int thread = 0; thread < 8; thread++) {
+                futures.add(executor.submit(() -> {
+                    start.await();
+                    for (int round = 0; round < 100; round++) {
+                        int key = round % 10;
+                        if (!Integer.valueOf(key * 2).equals(SUT.getResult(key).getUnsafe())) {
+                            return false;
+                        }
+                    }
+                    return true;
+                }));
+            }
+            start.countDown();
+            for (val future : futures) {
+                assertThat(future.get(), is(true));
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+
+        assertThat(loads.size(), is(10));
+        for (val count : loads.values()) {
+            assertThat(count.get(), is(1));
+        }
+        assertThat(SUT.stats().getHitCount() + SUT.stats().getMissCount(), is(800L));
+    }
+
+    @Test
+    public void testInvalidate() throws Throwable {
+        val loads = new AtomicInteger();
+        val SUT = new CachedFunction<Integer, Integer>(key -> loads.incrementAndGet(), new CacheSpec());
+        SUT.apply(1);
+        SUT.invalidate(1);
+        SUT.apply(1);
+        SUT.invalidateAll();
+        assertThat(SUT.size(), is(0));
+        assertThat(loads.get(), is(2));
+    }
+}
@@ -0,0 +1,46 @@
+package io.buybrain.util.time;
+
+import lombok.val;
+import org.testng.annotations.Test;
+
+import java.time.Duration;
+
+import static org.awaitility.Awaitility.await;
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.greaterThan;
+import static org.hamcrest.Matchers.lessThan;
+import static org.hamcrest.core.Is.is;
+
+public class CoarseClockTest {
+    @Test
+    public void testFollowsSystemTime() {
+        try (val SUT = new CoarseClock(Duration.ofMillis(5))) {
+            long diff = Math.abs(System.currentTimeMillis() - SUT.nowMillis());
+            assertThat(diff, lessThan(1000L));
+
+            long first = SUT.nowMillis();
+            await().until(() -> SUT.nowMillis() > first);
+
+            assertThat(SUT.nowNanos() / 1_000_000, greaterThan(first));
+            assertThat(SUT.nowUtc().getZone(), is(Clock.UTC));
+        }
+    }
+
+    @Test
+    public void testStopsAfterClose() throws InterruptedException {
+        val SUT = new CoarseClock(Duration.ofMillis(1));
+        SUT.close();
+        Thread.sleep(20);
+        long stopped = SUT.nowMillis();
+        Thread.sleep(20);
+        assertThat(SUT.nowMillis(), is(stopped));
+    }
+
+    @Test
+    public void testDefaultNowMillis() {
+        val clock = new MockClock();
+        clock.sleep(Duration.ofMillis(1500));
+        assertThat(clock.nowMillis(), is(1500L));
+        assertThat(clock.nowNanos(), is(1_500_000_000L));
+    }
+}
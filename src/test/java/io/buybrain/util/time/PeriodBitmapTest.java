@@ -0,0 +1,118 @@
+package io.buybrain.util.time;
+
+import lombok.val;
+import org.testng.annotations.Test;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.ZoneId;
+import java.time.ZonedDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import static java.util.Arrays.asList;
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.core.Is.is;
+
+public class PeriodBitmapTest {
+    private static final ZoneId UTC = ZoneId.of("UTC");
+    private static final Instant ORIGIN = day(0).toInstant();
+    private static final Instant END = day(1000).toInstant();
+    private static final Duration MINUTE = Duration.ofMinutes(1);
+
+    @Test
+    public void testConversions() {
+        val periods = asList(
+            period(day(0).plusMinutes(10), day(0).plusMinutes(20)),
+            period(day(0).plusMinutes(15), day(0).plusMinutes(30)),
+            // Spans several chunks, so some of them are full
+            period(day(10), day(300)),
+            period(day(400).plusSeconds(30), day(400).plusMinutes(2))
+        );
+
+        val SUT = PeriodBitmap.of(periods, ORIGIN, END, MINUTE);
+
+        assertThat(SUT.toPeriods(UTC), is(asList(
+            period(day(0).plusMinutes(10), day(0).plusMinutes(30)),
+            period(day(10), day(300)),
+            // Widened to whole minutes
+            period(day(400), day(400).plusMinutes(2))
+        )));
+        assertThat(SUT.cardinality(), is(20 + 290 * 24 * 60 + 2L));
+        assertThat(SUT.contains(day(0).plusMinutes(29).toInstant()), is(true));
+        assertThat(SUT.contains(day(0).plusMinutes(30).toInstant()), is(false));
+        assertThat(SUT.contains(day(-1).toInstant()), is(false));
+        assertThat(SUT.toPeriodSet(), is(PeriodSet.of(SUT.toPeriods(UTC))));
+    }
+
+    @Test
+    public void testOperationsMatchPeriodSet() {
+        val random = new Random(42);
+        for (int round = 0; round < 20; round++) {
+            val a = randomPeriods(random);
+            val b = randomPeriods(random);
+            val c = randomPeriods(random);
+            val bitmapA = PeriodBitmap.of(a, ORIGIN, END, MINUTE);
+            val bitmapB = PeriodBitmap.of(b, ORIGIN, END, MINUTE);
+            val bitmapC = PeriodBitmap.of(c, ORIGIN, END, MINUTE);
+            val setA = PeriodSet.of(a);
+            val setB = PeriodSet.of(b);
+            val setC = PeriodSet.of(c);
+
+            assertThat(bitmapA.or(bitmapB).toPeriodSet(), is(setA.union(setB)));
+            assertThat(bitmapA.and(bitmapB).toPeriodSet(), is(setA.intersect(setB)));
+            assertThat(bitmapA.andNot(bitmapB).toPeriodSet(), is(setA.subtract(setB)));
+            assertThat(
+                PeriodBitmap.union(asList(bitmapA, bitmapB, bitmapC)),
+                is(bitmapA.or(bitmapB).or(bitmapC))
+            );
+            assertThat(
+                PeriodBitmap.intersection(asList(bitmapA, bitmapB, bitmapC)).toPeriodSet(),
+                is(setA.intersect(setB).intersect(setC))
+            );
+        }
+    }
+
+    @Test(expectedExceptions = IllegalArgumentException.class)
+    public void testIncompatibleBitmaps() {
+        PeriodBitmap.empty(ORIGIN, END, MINUTE).or(PeriodBitmap.empty(ORIGIN, END, Duration.ofSeconds(1)));
+    }
+
+    @Test
+    public void testPeriodsAreClippedToHorizon() {
+        val SUT = PeriodBitmap.of(
+            asList(period(day(-10), day(1)), period(day(999), LocalDate.of(9999, 1, 1).atStartOfDay(UTC))),
+            ORIGIN,
+            END,
+            Duration.ofMillis(1)
+        );
+
+        assertThat(SUT.toPeriods(UTC), is(asList(period(day(0), day(1)), period(day(999), day(1000)))));
+        assertThat(SUT.contains(END), is(false));
+    }
+
+    @Test(expectedExceptions = IllegalArgumentException.class)
+    public void testHorizonWithTooManyChunks() {
+        PeriodBitmap.empty(Instant.EPOCH, LocalDate.of(9999, 1, 1).atStartOfDay(UTC).toInstant(), Duration.ofMillis(1));
+    }
+
+    private static List<Period> randomPeriods(Random random) {
+        List<Period> result = new ArrayList<>();
+        for (int i = random.nextInt(50); i > 0; i--) {
+            // Minute aligned, and long enough to fill whole chunks now and then
+            val from = day(0).plusMinutes(random.nextInt(1_000_000));
+            result.add(period(from, from.plusMinutes(random.nextInt(random.nextBoolean() ? 100 : 200_000))));
+        }
+        return result;
+    }
+
+    private static Period period(ZonedDateTime from, ZonedDateTime to) {
+        return new Period(from, to);
+    }
+
+    private static ZonedDateTime day(int offset) {
+        return LocalDate.of(2017, 1, 1).plusDays(offset).atStartOfDay(UTC);
+    }
+}
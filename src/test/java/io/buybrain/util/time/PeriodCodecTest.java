@@ -0,0 +1,153 @@
+package io.buybrain.util.time;
+
+import lombok.val;
+import org.testng.annotations.Test;
+
+import java.nio.ByteBuffer;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.ZoneId;
+import java.time.ZonedDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import static java.util.Arrays.asList;
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.core.Is.is;
+import static org.testng.Assert.fail;
+
+public class PeriodCodecTest {
+    private static final ZoneId UTC = ZoneId.of("UTC");
+    private static final ZoneId AMSTERDAM = ZoneId.of("Europe/Amsterdam");
+
+    @Test
+    public void testRoundTrip() {
+        val periods = asList(
+            new Period(day(3, UTC), day(5, UTC)),
+            new Period(day(1, AMSTERDAM), day(2, AMSTERDAM)),
+            new Period(day(1, UTC), day(1, UTC)),
+            new Period(day(-1000, UTC), day(-999, UTC))
+        );
+
+        val SUT = PeriodCodec.decode(PeriodCodec.encode(periods, 2));
+
+        assertThat(SUT.size(), is(4));
+        val decoded = new ArrayList<Period>();
+        SUT.forEach(decoded::add);
+        assertThat(decoded, is(periods));
+    }
+
+    @Test
+    public void testCursorAndSeek() {
+        List<Period> periods = new ArrayList<>();
+        for (int i = 0; i < 1000; i++) {
+            periods.add(new Period(day(i, UTC), day(i, UTC).plusHours(i % 24)));
+        }
+        val bytes = PeriodCodec.encode(periods, 16);
+        // Sorted periods should take less space than storing their starts and ends as raw longs
+        assertThat(bytes.length < 1000 * 16, is(true));
+
+        // Decode from a buffer that doesn't start at 0
+        val buffer = ByteBuffer.allocate(bytes.length + 10);
+        buffer.position(10);
+        buffer.put(bytes);
+        buffer.position(10);
+        val SUT = PeriodCodec.decode(buffer);
+
+        val cursor = SUT.cursor();
+        long total = 0;
+        while (cursor.next()) {
+            total += cursor.toMillis() - cursor.fromMillis();
+        }
+        assertThat(total, is(periods.stream().mapToLong(p -> p.length(ChronoUnit.MILLIS)).sum()));
+
+        val seek = SUT.cursorAt(day(500, UTC).toInstant());
+        assertThat(seek.next(), is(true));
+        assertThat(seek.fromMillis(), is(day(496, UTC).toInstant().toEpochMilli()));
+
+        val beforeAll = SUT.cursorAt(Instant.EPOCH);
+        assertThat(beforeAll.next(), is(true));
+        assertThat(beforeAll.toPeriod(), is(periods.get(0)));
+        assertThat(buffer.position(), is(10));
+    }
+
+    @Test
+    public void testSeekWithEqualStartsAcrossBlocks() {
+        val periods = asList(
+            new Period(day(0, UTC), day(1, UTC)),
+            new Period(day(5, UTC), day(6, UTC)),
+            new Period(day(5, UTC), day(7, UTC)),
+            new Period(day(5, UTC), day(8, UTC))
+        );
+        val SUT = PeriodCodec.decode(PeriodCodec.encode(periods, 2));
+
+        val cursor = SUT.cursorAt(day(5, UTC).toInstant());
+        int startingAtInstant = 0;
+        while (cursor.next()) {
+            if (cursor.fromMillis() == day(5, UTC).toInstant().toEpochMilli()) {
+                startingAtInstant++;
+            }
+        }
+        assertThat(startingAtInstant, is(3));
+    }
+
+    @Test
+    public void testEmpty() {
+        val SUT = PeriodCodec.decode(PeriodCodec.encode(new ArrayList<>()));
+        assertThat(SUT.isEmpty(), is(true));
+        assertThat(SUT.iterator().hasNext(), is(false));
+        assertThat(SUT.cursorAt(Instant.EPOCH).next(), is(false));
+    }
+
+    @Test(expectedExceptions = IllegalArgumentException.class)
+    public void testInvalidInput() {
+        PeriodCodec.decode(new byte[]{1, 2});
+    }
+
+    @Test
+    public void testCorruptedBody() {
+        val periods = asList(
+            new Period(day(0, UTC), day(1, UTC)),
+            new Period(day(1, UTC), day(2, UTC))
+        );
+        val bytes = PeriodCodec.encode(periods);
+
+        // Point the last period at a zone that doesn't exist
+        val badZone = bytes.clone();
+        badZone[badZone.length - 1] = 5;
+        assertMalformed(badZone);
+
+        // Cut off the last period halfway
+        assertMalformed(Arrays.copyOf(bytes, bytes.length - 2));
+
+        // A period count far beyond what the buffer can hold
+        val badCount = bytes.clone();
+        badCount[4] = (byte) 0xFF;
+        badCount[5] = (byte) 0xFF;
+        try {
+            PeriodCodec.decode(badCount);
+            fail();
+        } catch (IllegalArgumentException ex) {
+            // Expected
+        }
+    }
+
+    private static void assertMalformed(byte[] bytes) {
+        val SUT = PeriodCodec.decode(bytes);
+        val cursor = SUT.cursor();
+        try {
+            while (cursor.next()) {
+                // Read until the corrupted period
+            }
+            fail();
+        } catch (IllegalArgumentException ex) {
+            // Expected
+        }
+    }
+
+    private static ZonedDateTime day(int offset, ZoneId zone) {
+        return LocalDate.of(2017, 1, 1).plusDays(offset).atStartOfDay(zone);
+    }
+}
@@ -0,0 +1,118 @@
+package io.buybrain.util.time;
+
+import lombok.val;
+import org.testng.annotations.Test;
+
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.ZoneId;
+import java.time.ZonedDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import static java.util.Arrays.asList;
+import static java.util.stream.Collectors.toList;
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.core.Is.is;
+
+public class PeriodIndexTest {
+    private static final ZoneId UTC = ZoneId.of("UTC");
+
+    @Test
+    public void testQueries() {
+        val SUT = PeriodIndex.of(asList(
+            new PeriodIndex.Entry<>(period(0, 10), "a"),
+            new PeriodIndex.Entry<>(period(5, 6), "b"),
+            new PeriodIndex.Entry<>(period(6, 8), "c"),
+            new PeriodIndex.Entry<>(period(20, 30), "d")
+        ));
+
+        assertThat(values(SUT.at(day(5).toInstant())), is(asList("a", "b")));
+        assertThat(values(SUT.at(day(6).toInstant())), is(asList("a", "c")));
+        assertThat(values(SUT.at(day(10).toInstant())), is(asList()));
+        assertThat(values(SUT.overlapping(period(8, 21))), is(asList("a", "d")));
+        assertThat(values(SUT.overlapping(period(10, 20))), is(asList()));
+        assertThat(SUT.size(), is(4));
+    }
+
+    @Test
+    public void testInsertAndRemove() {
+        val SUT = new PeriodIndex<String>();
+        SUT.insert(period(3, 5), "a");
+        SUT.insert(period(1, 4), "b");
+        SUT.insert(period(3, 5), "c");
+
+        assertThat(values(SUT.at(day(3).toInstant())), is(asList("b", "a", "c")));
+        assertThat(SUT.remove(period(3, 5), "a"), is(true));
+        assertThat(SUT.remove(period(3, 5), "a"), is(false));
+        assertThat(values(SUT.at(day(3).toInstant())), is(asList("b", "c")));
+        assertThat(SUT.size(), is(2));
+    }
+
+    @Test
+    public void testMatchesLinearScan() {
+        val random = new Random(42);
+        val SUT = new PeriodIndex<Integer>();
+        List<PeriodIndex.Entry<Integer>> expected = new ArrayList<>();
+
+        for (int i = 0; i < 2000; i++) {
+            if (!expected.isEmpty() && random.nextInt(3) == 0) {
+                val removed = expected.remove(random.nextInt(expected.size()));
+                assertThat(SUT.remove(removed.getPeriod(), removed.getValue()), is(true));
+            } else {
+                int from = random.nextInt(365);
+                val entry = new PeriodIndex.Entry<>(period(from, from + random.nextInt(30)), i);
+                SUT.insert(entry.getPeriod(), entry.getValue());
+                expected.add(entry);
+            }
+
+            int from = random.nextInt(400);
+            val window = period(from, from + random.nextInt(10) + 1);
+            val matching = expected.stream()
+                .filter(e -> e.getPeriod().getFrom().isBefore(e.getPeriod().getTo()))
+                .filter(e -> e.getPeriod().getFrom().isBefore(window.getTo()))
+                .filter(e -> e.getPeriod().getTo().isAfter(window.getFrom()))
+                .map(PeriodIndex.Entry::getValue)
+                .sorted()
+                .collect(toList());
+            assertThat(values(SUT.overlapping(window)).stream().sorted().collect(toList()), is(matching));
+        }
+
+        assertThat(SUT.size(), is(expected.size()));
+        assertThat(PeriodIndex.of(expected).entries().size(), is(expected.size()));
+    }
+
+    @Test
+    public void testFarAwayPeriods() {
+        val ancient = new Period(year(1), year(2));
+        val distant = new Period(year(9999), year(9999).plusDays(1));
+        val SUT = new PeriodIndex<String>();
+        SUT.insert(distant, "distant");
+        SUT.insert(ancient, "ancient");
+
+        assertThat(values(SUT.at(year(1).plusMonths(6).toInstant())), is(asList("ancient")));
+        assertThat(values(SUT.at(year(9999).toInstant())), is(asList("distant")));
+        assertThat(
+            values(SUT.overlapping(new Period(year(1), year(9999).plusHours(1)))),
+            is(asList("ancient", "distant"))
+        );
+        assertThat(SUT.remove(distant, "distant"), is(true));
+    }
+
+    private static <V> List<V> values(List<PeriodIndex.Entry<V>> entries) {
+        return entries.stream().map(PeriodIndex.Entry::getValue).collect(toList());
+    }
+
+    private static Period period(int from, int to) {
+        return new Period(day(from), day(to));
+    }
+
+    private static ZonedDateTime year(int year) {
+        return LocalDate.of(year, 1, 1).atStartOfDay(UTC);
+    }
+
+    private static ZonedDateTime day(int offset) {
+        return LocalDate.of(2017, 1, 1).plusDays(offset).atStartOfDay(UTC);
+    }
+}
@@ -0,0 +1,136 @@
+package io.buybrain.util.time;
+
+import lombok.NonNull;
+import lombok.val;
+import org.testng.annotations.Test;
+
+import java.time.LocalDate;
+import java.time.ZoneId;
+import java.time.ZonedDateTime;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Random;
+
+import static java.util.Arrays.asList;
+import static java.util.stream.Collectors.toList;
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.core.Is.is;
+
+public class PeriodSetTest {
+    private static final ZoneId UTC = ZoneId.of("UTC");
+
+    @Test
+    public void testOfNormalizes() {
+        val SUT = PeriodSet.of(asList(
+            period("2017-01-10", "2017-01-12"),
+            period("2017-01-01", "2017-01-02"),
+            period("2017-01-04", "2017-01-05"),
+            period("2017-01-03", "2017-01-04"),
+            period("2017-01-09", "2017-01-11"),
+            period("2017-01-20", "2017-01-20"),
+            period("2017-01-15", "2017-01-17"),
+            period("2017-01-14", "2017-01-18")
+        ));
+
+        assertThat(SUT.toPeriods(UTC), is(asList(
+            period("2017-01-01", "2017-01-02"),
+            period("2017-01-03", "2017-01-05"),
+            period("2017-01-09", "2017-01-12"),
+            period("2017-01-14", "2017-01-18")
+        )));
+        assertThat(SUT.size(), is(4));
+    }
+
+    @Test
+    public void testOperations() {
+        val a = PeriodSet.of(asList(
+            period("2017-01-01", "2017-02-01"),
+            period("2017-02-15", "2017-02-16"),
+            period("2017-02-20", "2017-02-25")
+        ));
+        val b = PeriodSet.of(asList(
+            period("2017-01-02", "2017-01-10"),
+            period("2017-01-20", "2017-02-15"),
+            period("2017-02-21", "2017-02-22")
+        ));
+
+        assertThat(a.union(b).toPeriods(UTC), is(asList(
+            period("2017-01-01", "2017-02-16"),
+            period("2017-02-20", "2017-02-25")
+        )));
+        assertThat(a.intersect(b).toPeriods(UTC), is(asList(
+            period("2017-01-02", "2017-01-10"),
+            period("2017-01-20", "2017-02-01"),
+            period("2017-02-21", "2017-02-22")
+        )));
+        assertThat(a.subtract(b).toPeriods(UTC), is(asList(
+            period("2017-01-01", "2017-01-02"),
+            period("2017-01-10", "2017-01-20"),
+            period("2017-02-15", "2017-02-16"),
+            period("2017-02-20", "2017-02-21"),
+            period("2017-02-22", "2017-02-25")
+        )));
+        assertThat(a.subtract(PeriodSet.empty()), is(a));
+        assertThat(a.intersect(PeriodSet.empty()).isEmpty(), is(true));
+    }
+
+    @Test
+    public void testContains() {
+        val SUT = PeriodSet.ofEpochMillis(10, 20).union(PeriodSet.ofEpochMillis(30, 40));
+
+        assertThat(SUT.contains(9), is(false));
+        assertThat(SUT.contains(10), is(true));
+        assertThat(SUT.contains(15), is(true));
+        assertThat(SUT.contains(20), is(false));
+        assertThat(SUT.contains(25), is(false));
+        assertThat(SUT.contains(39), is(true));
+        assertThat(SUT.contains(40), is(false));
+        assertThat(SUT.totalMillis(), is(20L));
+    }
+
+    @Test
+    public void testMatchesPeriods() {
+        val random = new Random(42);
+        for (int round = 0; round < 50; round++) {
+            val a = randomPeriods(random);
+            val b = randomPeriods(random);
+            val setA = PeriodSet.of(a);
+            val setB = PeriodSet.of(b);
+
+            val mergedA = Periods.merge(new ArrayList<>(a));
+            val mergedB = Periods.merge(new ArrayList<>(b));
+            assertThat(setA.toPeriods(UTC), is(mergedA));
+            assertThat(setA.union(setB).toPeriods(UTC), is(Periods.merge(a, b)));
+            // Periods.intersect yields empty periods where periods touch, sets don't contain those
+            val intersection = Periods.intersect(mergedA, mergedB).stream()
+                .filter(p -> p.getFrom().isBefore(p.getTo()))
+                .collect(toList());
+            assertThat(setA.intersect(setB).toPeriods(UTC), is(intersection));
+
+            // Subtracting and adding back the intersection should give back the original set
+            assertThat(setA.subtract(setB).union(setA.intersect(setB)), is(setA));
+            assertThat(setA.subtract(setB).intersect(setB).isEmpty(), is(true));
+        }
+    }
+
+    private static List<Period> randomPeriods(Random random) {
+        List<Period> result = new ArrayList<>();
+        for (int i = random.nextInt(20); i > 0; i--) {
+            int from = random.nextInt(100);
+            // Avoid empty periods, the Periods operations keep those around
+            int to = from + 1 + random.nextInt(10);
+            result.add(new Period(day(from), day(to)));
+        }
+        Collections.shuffle(result, random);
+        return result;
+    }
+
+    private static ZonedDateTime day(int offset) {
+        return LocalDate.of(2017, 1, 1).plusDays(offset).atStartOfDay(UTC);
+    }
+
+    private static Period period(@NonNull String from, @NonNull String to) {
+        return new Period(LocalDate.parse(from).atStartOfDay(UTC), LocalDate.parse(to).atStartOfDay(UTC));
+    }
+}
@@ -1,17 +1,27 @@
 package io.buybrain.util.time;
 
+import io.buybrain.util.QueuedIterator;
+import io.buybrain.util.Tuple2;
 import lombok.NonNull;
 import lombok.val;
 import org.testng.annotations.Test;
 
+import java.time.Duration;
 import java.time.LocalDate;
 import java.time.LocalDateTime;
 import java.time.ZoneId;
 import java.time.ZonedDateTime;
 import java.time.format.DateTimeParseException;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.List;
 import java.util.Optional;
+import java.util.Random;
 
 import static java.util.Arrays.asList;
+import static java.util.concurrent.Executors.newSingleThreadExecutor;
 import static org.hamcrest.MatcherAssert.assertThat;
 import static org.hamcrest.core.Is.is;
 
@@ -39,6 +49,25 @@ public class PeriodsTest {
         assertThat(result, is(expected));
     }
 
+    @Test
+    public void testParallelMerge() {
+        val random = new Random(42);
+        val periods = new ArrayList<Period>();
+        val start = utc("2017-01-01");
+        for (int i = 0; i < 100_000; i++) {
+            val from = start.plusMinutes(random.nextInt(10_000_000));
+            periods.add(new Period(from, from.plusMinutes(random.nextInt(200))));
+        }
+        // One very long period that spans many chunks
+        periods.add(new Period(start.plusMinutes(1_000_000), start.plusMinutes(3_000_000)));
+        val original = new ArrayList<Period>(periods);
+
+        val result = Periods.parallelMerge(periods);
+
+        assertThat(periods, is(original));
+        assertThat(result, is(Periods.merge(new ArrayList<>(periods))));
+    }
+
     @Test
     public void testSubtractSingle() {
         assertThat(
@@ -145,6 +174,295 @@ public class PeriodsTest {
         assertThat(result, is(expected));
     }
 
+    @Test
+    public void testSubtractList() {
+        val subjects = asList(
+            period("2017-01-01", "2017-01-10"),
+            period("2017-01-05", "2017-01-20"),
+            period("2017-02-01", "2017-02-05")
+        );
+        val toSubtract = asList(
+            period("2017-01-02", "2017-01-03"),
+            period("2017-01-08", "2017-01-12"),
+            period("2017-01-15", "2017-01-16"),
+            period("2017-02-05", "2017-02-10")
+        );
+
+        val expected = asList(
+            period("2017-01-01", "2017-01-02"),
+            period("2017-01-03", "2017-01-08"),
+            period("2017-01-05", "2017-01-08"),
+            period("2017-01-12", "2017-01-15"),
+            period("2017-01-16", "2017-01-20"),
+            period("2017-02-01", "2017-02-05")
+        );
+
+        assertThat(Periods.subtract(subjects, toSubtract), is(expected));
+    }
+
+    @Test
+    public void testSubtractListWithOverlappingSubjects() {
+        val subjects = asList(
+            period("2017-01-01", "2017-01-11"),
+            period("2017-01-03", "2017-01-08")
+        );
+        val toSubtract = asList(
+            period("2017-01-02", "2017-01-04"),
+            period("2017-01-05", "2017-01-06")
+        );
+
+        // The last piece of the first subject starts after the second subject does, so the pieces need reordering
+        val expected = asList(
+            period("2017-01-01", "2017-01-02"),
+            period("2017-01-04", "2017-01-05"),
+            period("2017-01-04", "2017-01-05"),
+            period("2017-01-06", "2017-01-11"),
+            period("2017-01-06", "2017-01-08")
+        );
+
+        assertThat(Periods.subtract(subjects, toSubtract), is(expected));
+    }
+
+    @Test
+    public void testSubtractListMatchesRepeatedSubtract() {
+        val random = new Random(42);
+        for (int round = 0; round < 50; round++) {
+            val subjects = Periods.merge(randomPeriods(random));
+            val toSubtract = Periods.merge(randomPeriods(random));
+
+            List<Period> expected = subjects;
+            for (Period period : toSubtract) {
+                expected = Periods.subtract(expected, period);
+            }
+
+            assertThat(Periods.subtract(subjects, toSubtract), is(expected));
+        }
+    }
+
+    @Test
+    public void testSymmetricDifference() {
+        val first = asList(
+            period("2017-01-01", "2017-02-01"),
+            period("2017-02-15", "2017-02-16")
+        );
+        val second = asList(
+            period("2017-01-10", "2017-01-20"),
+            period("2017-02-01", "2017-02-10"),
+            period("2017-02-16", "2017-02-18")
+        );
+
+        val expected = asList(
+            period("2017-01-01", "2017-01-10"),
+            period("2017-01-20", "2017-02-10"),
+            period("2017-02-15", "2017-02-18")
+        );
+
+        assertThat(Periods.symmetricDifference(first, second), is(expected));
+    }
+
+    @Test
+    public void testSymmetricDifferenceMatchesSubtract() {
+        val random = new Random(42);
+        for (int round = 0; round < 50; round++) {
+            val a = Periods.merge(randomPeriods(random));
+            val b = Periods.merge(randomPeriods(random));
+
+            val expected = Periods.merge(Periods.subtract(a, b), Periods.subtract(b, a));
+
+            assertThat(Periods.symmetricDifference(a, b), is(expected));
+            val reversed = new ArrayList<Period>(b);
+            Collections.reverse(reversed);
+            assertThat(Periods.symmetricDifference(a, reversed), is(expected));
+        }
+    }
+
+    @Test
+    public void testCoverage() {
+        val lists = asList(
+            asList(period("2017-01-01", "2017-01-10"), period("2017-01-20", "2017-01-25")),
+            asList(period("2017-01-05", "2017-01-15")),
+            asList(period("2017-01-08", "2017-01-09"), period("2017-01-10", "2017-01-12"))
+        );
+
+        assertThat(Periods.coverage(lists), is(asList(
+            new Tuple2<>(period("2017-01-01", "2017-01-05"), 1),
+            new Tuple2<>(period("2017-01-05", "2017-01-08"), 2),
+            new Tuple2<>(period("2017-01-08", "2017-01-09"), 3),
+            new Tuple2<>(period("2017-01-09", "2017-01-12"), 2),
+            new Tuple2<>(period("2017-01-12", "2017-01-15"), 1),
+            new Tuple2<>(period("2017-01-20", "2017-01-25"), 1)
+        )));
+        assertThat(Periods.atLeast(2, lists), is(asList(period("2017-01-05", "2017-01-12"))));
+        assertThat(Periods.intersectAll(lists), is(asList(period("2017-01-08", "2017-01-09"))));
+    }
+
+    @Test
+    public void testIntersectAllMatchesPairwiseIntersect() {
+        val first = asList(
+            period("2017-01-01", "2017-02-01"),
+            period("2017-02-15", "2017-02-16"),
+            period("2017-02-20", "2017-02-25")
+        );
+
+        val second = asList(
+            period("2017-01-02", "2017-01-10"),
+            period("2017-01-20", "2017-02-25")
+        );
+
+        assertThat(Periods.intersectAll(asList(first, second)), is(Periods.intersect(first, second)));
+    }
+
+    @Test
+    public void testBucketAcrossDstTransition() {
+        val zone = ZoneId.of("Europe/Amsterdam");
+        // The last Sunday of October 2017 had 25 hours in Amsterdam
+        val periods = asList(
+            new Period(local(zone, "2017-10-28T12:00"), local(zone, "2017-10-30T00:00")),
+            new Period(local(zone, "2017-10-29T12:00"), local(zone, "2017-10-29T13:00")),
+            new Period(local(zone, "2017-10-31T06:00"), local(zone, "2017-10-31T07:30"))
+        );
+
+        val days = Periods.bucket(periods, ChronoUnit.DAYS, zone);
+        assertThat(days.size(), is(4));
+        assertThat(days.getStart(0), is(local(zone, "2017-10-28T00:00")));
+        assertThat(days.getEnd(3), is(local(zone, "2017-11-01T00:00")));
+        assertThat(days.getCovered(0), is(Duration.ofHours(12)));
+        assertThat(days.getCovered(1), is(Duration.ofHours(25)));
+        assertThat(days.getCovered(2), is(Duration.ZERO));
+        assertThat(days.getCovered(3), is(Duration.ofMinutes(90)));
+
+        val hours = Periods.bucket(periods.subList(0, 1), ChronoUnit.HOURS, zone);
+        assertThat(hours.size(), is(12 + 25));
+        for (long covered : hours.coveredMillis()) {
+            assertThat(covered, is(Duration.ofHours(1).toMillis()));
+        }
+    }
+
+    @Test
+    public void testBucketWeeksAndMonths() {
+        val periods = asList(period("2017-01-30", "2017-02-14"));
+
+        val weeks = Periods.bucket(periods, ChronoUnit.WEEKS, ZoneId.of("UTC"));
+        assertThat(weeks.size(), is(3));
+        assertThat(weeks.getCovered(0), is(Duration.ofDays(7)));
+        assertThat(weeks.getCovered(2), is(Duration.ofDays(1)));
+
+        val months = Periods.bucket(periods, ChronoUnit.MONTHS, ZoneId.of("UTC"));
+        assertThat(months.size(), is(2));
+        assertThat(months.getStart(0), is(utc("2017-01-01")));
+        assertThat(months.getCovered(0), is(Duration.ofDays(2)));
+        assertThat(months.getCovered(1), is(Duration.ofDays(13)));
+    }
+
+    @Test
+    public void testMergeSorted() {
+        val result = toList(Periods.mergeSorted(
+            asList(
+                period("2017-01-01", "2017-01-02"),
+                period("2017-01-09", "2017-01-11"),
+                period("2017-01-15", "2017-01-17")
+            ).iterator(),
+            asList(
+                period("2017-01-03", "2017-01-04"),
+                period("2017-01-10", "2017-01-12"),
+                period("2017-01-14", "2017-01-18")
+            ).iterator(),
+            asList(
+                period("2017-01-04", "2017-01-05"),
+                period("2017-01-15", "2017-01-17")
+            ).iterator()
+        ));
+
+        val expected = asList(
+            period("2017-01-01", "2017-01-02"),
+            period("2017-01-03", "2017-01-05"),
+            period("2017-01-09", "2017-01-12"),
+            period("2017-01-14", "2017-01-18")
+        );
+
+        assertThat(result, is(expected));
+    }
+
+    @Test
+    public void testMergeSortedFromQueuedIterators() throws Exception {
+        val first = new QueuedIterator<Period>(2);
+        val second = new QueuedIterator<Period>(2);
+        // Each source needs its own writer, since the merge drains the first source before it reads the second
+        val firstWriter = newSingleThreadExecutor().submit(() -> write(first, "2017-01-"));
+        val secondWriter = newSingleThreadExecutor().submit(() -> write(second, "2017-02-"));
+
+        val result = toList(Periods.mergeSorted(first, second));
+
+        assertThat(result.size(), is(20));
+        assertThat(result.get(0), is(period("2017-01-01", "2017-01-02")));
+        assertThat(result.get(19), is(period("2017-02-19", "2017-02-20")));
+        firstWriter.get();
+        secondWriter.get();
+    }
+
+    @Test(expectedExceptions = IllegalArgumentException.class)
+    public void testMergeSortedRejectsUnsortedSource() {
+        toList(Periods.mergeSorted(asList(
+            period("2017-01-10", "2017-01-11"),
+            period("2017-01-01", "2017-01-02")
+        ).iterator()));
+    }
+
+    @Test
+    public void testIntersectSorted() {
+        val first = asList(
+            period("2017-01-01", "2017-02-01"),
+            period("2017-01-05", "2017-01-06"),
+            period("2017-02-15", "2017-02-16"),
+            period("2017-02-20", "2017-02-25")
+        );
+
+        val second = asList(
+            period("2017-01-02", "2017-01-10"),
+            period("2017-01-20", "2017-02-15"),
+            period("2017-02-21", "2017-02-22")
+        );
+
+        val expected = asList(
+            period("2017-01-02", "2017-01-10"),
+            period("2017-01-20", "2017-02-01"),
+            period("2017-02-21", "2017-02-22")
+        );
+
+        assertThat(toList(Periods.intersectSorted(first.iterator(), second.iterator())), is(expected));
+    }
+
+    private static List<Period> randomPeriods(Random random) {
+        val result = new ArrayList<Period>();
+        val start = utc("2017-01-01");
+        for (int i = random.nextInt(20); i > 0; i--) {
+            val from = start.plusDays(random.nextInt(100));
+            result.add(new Period(from, from.plusDays(1 + random.nextInt(10))));
+        }
+        return result;
+    }
+
+    private static List<Period> toList(Iterator<Period> it) {
+        val result = new ArrayList<Period>();
+        it.forEachRemaining(result::add);
+        return result;
+    }
+
+    private static void write(QueuedIterator<Period> target, String month) {
+        for (int day = 1; day <= 20; day += 2) {
+            target.put(period(month + pad(day), month + pad(day + 1)));
+        }
+        target.done();
+    }
+
+    private static ZonedDateTime local(ZoneId zone, String format) {
+        return LocalDateTime.parse(format).atZone(zone);
+    }
+
+    private static String pad(int day) {
+        return day < 10 ? "0" + day : String.valueOf(day);
+    }
+
     private static Period period(@NonNull String from, String to) {
         return new Period(utc(from), to == null ? null : utc(to));
     }
@@ -0,0 +1,197 @@
+package io.buybrain.util.time;
+
+import lombok.val;
+import org.testng.annotations.Test;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Random;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static java.util.Arrays.asList;
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.core.Is.is;
+
+public class SchedulerTest {
+    @Test
+    public void testRunsTasksInDeadlineOrder() {
+        val clock = new MockClock();
+        val SUT = new Scheduler(clock, Duration.ofMillis(1));
+        val fired = new ArrayList<Integer>();
+
+        SUT.schedule(Duration.ofMillis(30), () -> fired.add(30));
+        SUT.schedule(Duration.ofMillis(10), () -> fired.add(10));
+        SUT.schedule(Duration.ofMillis(20), () -> fired.add(20));
+        SUT.advance();
+        assertThat(fired, is(asList()));
+
+        clock.sleep(Duration.ofMillis(9));
+        SUT.advance();
+        assertThat(fired, is(asList()));
+
+        clock.sleep(Duration.ofMillis(1));
+        SUT.advance();
+        assertThat(fired, is(asList(10)));
+
+        clock.sleep(Duration.ofMillis(100));
+        SUT.advance();
+        assertThat(fired, is(asList(10, 20, 30)));
+        assertThat(SUT.pendingCount(), is(0));
+    }
+
+    @Test
+    public void testCancel() {
+        val clock = new MockClock();
+        val SUT = new Scheduler(clock, Duration.ofMillis(1));
+        val fired = new AtomicInteger();
+
+        val timeout = SUT.schedule(Duration.ofMillis(5), fired::incrementAndGet);
+        SUT.advance();
+        assertThat(timeout.cancel(), is(true));
+        assertThat(timeout.cancel(), is(false));
+        assertThat(SUT.pendingCount(), is(0));
+
+        clock.sleep(Duration.ofMillis(10));
+        SUT.advance();
+        assertThat(fired.get(), is(0));
+        assertThat(timeout.isCancelled(), is(true));
+    }
+
+    @Test
+    public void testLongDelaysAcrossLevels() {
+        val clock = new MockClock();
+        val SUT = new Scheduler(clock, Duration.ofMillis(1));
+        val random = new Random(42);
+        val fired = new AtomicInteger();
+        val late = new AtomicInteger();
+
+        // Spread timers over several wheel levels and check that each fires exactly at its deadline
+        for (int i = 0; i < 2000; i++) {
+            long delayMillis = 1 + (long) (random.nextDouble() * 10_000_000);
+            long deadline = delayMillis;
+            SUT.schedule(Duration.ofMillis(delayMillis), () -> {
+                fired.incrementAndGet();
+                if (clock.nowMillis() != deadline) {
+                    late.incrementAndGet();
+                }
+            });
+        }
+        SUT.advance();
+
+        for (int step = 0; step < 10_000_000; step += 1) {
+            clock.sleep(Duration.ofMillis(1));
+            SUT.advance();
+        }
+
+        assertThat(fired.get(), is(2000));
+        assertThat(late.get(), is(0));
+    }
+
+    @Test(timeOut = 5000)
+    public void testLargeTimeJump() {
+        val clock = new MockClock();
+        val SUT = new Scheduler(clock, Duration.ofMillis(1));
+        val fired = new ArrayList<Long>();
+
+        SUT.schedule(Duration.ofDays(365), () -> fired.add(clock.nowMillis()));
+        SUT.schedule(Duration.ofDays(10), () -> fired.add(clock.nowMillis()));
+        SUT.schedule(Duration.ofDays(10).plusMillis(300), () -> fired.add(clock.nowMillis()));
+        SUT.advance();
+
+        // A single advance over a month should skip the idle ticks rather than step through them one by one
+        clock.sleep(Duration.ofDays(30));
+        SUT.advance();
+        assertThat(fired.size(), is(2));
+        assertThat(SUT.pendingCount(), is(1));
+
+        clock.sleep(Duration.ofDays(335));
+        SUT.advance();
+        assertThat(fired.size(), is(3));
+        assertThat(SUT.pendingCount(), is(0));
+    }
+
+    @Test
+    public void testRandomJumpsNeitherSkipNorFireEarly() {
+        val clock = new MockClock();
+        val SUT = new Scheduler(clock, Duration.ofMillis(1));
+        val random = new Random(42);
+        val fired = new AtomicInteger();
+        val early = new AtomicInteger();
+        val start = clock.nowMillis();
+        long[] deadlines = new long[2000];
+
+        for (int i = 0; i < deadlines.length; i++) {
+            long deadline = start + 1 + (long) (random.nextDouble() * 100_000_000);
+            deadlines[i] = deadline;
+            SUT.schedule(Duration.ofMillis(deadline - start), () -> {
+                fired.incrementAndGet();
+                if (clock.nowMillis() < deadline) {
+                    early.incrementAndGet();
+                }
+            });
+        }
+        SUT.advance();
+
+        while (SUT.pendingCount() > 0) {
+            clock.sleep(Duration.ofMillis(1 + random.nextInt(random.nextBoolean() ? 500 : 2_000_000)));
+            SUT.advance();
+            long now = clock.nowMillis();
+            assertThat(fired.get(), is((int) Arrays.stream(deadlines).filter(d -> d <= now).count()));
+        }
+        assertThat(early.get(), is(0));
+    }
+
+    @Test
+    public void testBackgroundThread() throws InterruptedException {
+        try (val SUT = new Scheduler().start()) {
+            val latch = new CountDownLatch(1);
+            SUT.schedule(Duration.ofMillis(20), latch::countDown);
+            assertThat(latch.await(5, TimeUnit.SECONDS), is(true));
+        }
+    }
+
+    @Test
+    public void testCloseStopsWorker() throws InterruptedException {
+        val SUT = new Scheduler();
+        SUT.start();
+        val worker = new AtomicReference<Thread>();
+        val latch = new CountDownLatch(1);
+        SUT.schedule(Duration.ofMillis(1), () -> {
+            worker.set(Thread.currentThread());
+            latch.countDown();
+        });
+        assertThat(latch.await(5, TimeUnit.SECONDS), is(true));
+
+        SUT.close();
+        assertThat(worker.get().isAlive(), is(false));
+    }
+
+    @Test
+    public void testTasksRunWithoutHoldingLock() throws InterruptedException {
+        val clock = new MockClock();
+        val SUT = new Scheduler(clock, Duration.ofMillis(1));
+        val otherThreadDone = new AtomicInteger();
+
+        SUT.schedule(Duration.ofMillis(1), () -> {
+            // Another thread using the scheduler while this task runs would block forever if the task held its lock
+            val other = new Thread(() -> {
+                SUT.advance();
+                otherThreadDone.incrementAndGet();
+            });
+            other.start();
+            try {
+                other.join(5000);
+            } catch (InterruptedException ex) {
+                Thread.currentThread().interrupt();
+            }
+        });
+        clock.sleep(Duration.ofMillis(1));
+        SUT.advance();
+
+        assertThat(otherThreadDone.get(), is(1));
+    }
+}
@@ -0,0 +1,72 @@
+package io.buybrain.util.time;
+
+import lombok.val;
+import org.testng.annotations.Test;
+
+import java.time.Duration;
+import java.util.concurrent.TimeUnit;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.core.Is.is;
+
+public class StopwatchTest {
+    @Test
+    public void testMeasuresWithMockClock() {
+        val clock = new MockClock();
+        val SUT = Stopwatch.createStarted(clock);
+
+        clock.sleep(Duration.ofMillis(1500));
+        assertThat(SUT.elapsed(TimeUnit.MILLISECONDS), is(1500L));
+
+        SUT.stop();
+        clock.sleep(Duration.ofSeconds(10));
+        assertThat(SUT.elapsed(), is(Duration.ofMillis(1500)));
+
+        SUT.start();
+        clock.sleep(Duration.ofMillis(500));
+        assertThat(SUT.elapsedNanos(), is(2_000_000_000L));
+
+        SUT.reset();
+        assertThat(SUT.isRunning(), is(false));
+        assertThat(SUT.elapsedNanos(), is(0L));
+    }
+
+    @Test(expectedExceptions = IllegalStateException.class)
+    public void testStopUnstarted() {
+        Stopwatch.createUnstarted(new MockClock()).stop();
+    }
+
+    @Test
+    public void testLatencyRecorder() {
+        val SUT = new LatencyRecorder();
+        assertThat(SUT.percentile(50), is(0L));
+
+        for (int i = 1; i <= 1000; i++) {
+            SUT.record(i * 1000L);
+        }
+
+        assertThat(SUT.count(), is(1000L));
+        assertThat(SUT.min(), is(1000L));
+        assertThat(SUT.max(), is(1_000_000L));
+        assertThat(SUT.mean(), is(500_500.0));
+        assertThat(SUT.percentile(100), is(1_000_000L));
+
+        // Percentiles are accurate to within one sub-bucket
+        long p50 = SUT.percentile(50);
+        assertThat(p50 >= 500_000L && p50 <= 500_000L * 9 / 8, is(true));
+        long p99 = SUT.percentile(99);
+        assertThat(p99 >= 990_000L && p99 <= 1_000_000L, is(true));
+
+        SUT.reset();
+        assertThat(SUT.count(), is(0L));
+    }
+
+    @Test
+    public void testLatencyRecorderBuckets() {
+        for (long value : new long[]{0, 1, 7, 8, 9, 15, 16, 17, 1000, 123456789, Long.MAX_VALUE}) {
+            int bucket = LatencyRecorder.bucketOf(value);
+            assertThat(LatencyRecorder.upperBoundOf(bucket) >= value, is(true));
+            assertThat(bucket == 0 || LatencyRecorder.upperBoundOf(bucket - 1) < value, is(true));
+        }
+    }
+}
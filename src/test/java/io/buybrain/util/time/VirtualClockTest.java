@@ -0,0 +1,101 @@
+package io.buybrain.util.time;
+
+import io.buybrain.util.Retryer;
+import lombok.val;
+import org.testng.annotations.Test;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static java.util.Arrays.asList;
+import static java.util.concurrent.Executors.newFixedThreadPool;
+import static java.util.concurrent.Executors.newSingleThreadExecutor;
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.core.Is.is;
+
+public class VirtualClockTest {
+    @Test
+    public void testSleepBlocksUntilAdvanced() throws Exception {
+        val SUT = new VirtualClock();
+        val woken = newSingleThreadExecutor().submit(() -> {
+            SUT.sleep(Duration.ofMinutes(5));
+            return SUT.nowMillis();
+        });
+
+        SUT.awaitSleepers(1);
+        SUT.advance(Duration.ofMinutes(4));
+        assertThat(woken.isDone(), is(false));
+
+        SUT.advance(Duration.ofMinutes(1));
+        assertThat(woken.get(), is(Duration.ofMinutes(5).toMillis()));
+    }
+
+    @Test
+    public void testAutoAdvanceWakesThreadsInOrder() throws Exception {
+        val SUT = new VirtualClock();
+        val wakeups = Collections.synchronizedList(new ArrayList<String>());
+        ExecutorService executor = newFixedThreadPool(3);
+
+        // Make sure all threads are registered before any of them sleeps, otherwise time could run ahead
+        val registered = new CountDownLatch(3);
+        List<Future<?>> futures = new ArrayList<>();
+        for (val name : asList("c", "a", "b")) {
+            futures.add(executor.submit(() -> {
+                SUT.register();
+                registered.countDown();
+                try {
+                    registered.await();
+                    // a sleeps 1 minute three times, b 2 minutes twice, c 3 minutes once
+                    int minutes = name.charAt(0) - 'a' + 1;
+                    for (int i = 0; i < 4 - minutes; i++) {
+                        SUT.sleep(Duration.ofMinutes(minutes));
+                        wakeups.add(name + SUT.now().getEpochSecond() / 60);
+                    }
+                    return null;
+                } finally {
+                    SUT.unregister();
+                }
+            }));
+        }
+        for (Future<?> future : futures) {
+            future.get();
+        }
+        executor.shutdown();
+
+        assertThat(SUT.nowMillis(), is(Duration.ofMinutes(4).toMillis()));
+        assertThat(wakeups.size(), is(6));
+        // Threads waking at the same virtual time may be recorded in any order, others must be in time order
+        assertThat(wakeups.indexOf("a1") < wakeups.indexOf("a2"), is(true));
+        assertThat(wakeups.indexOf("a2") < wakeups.indexOf("a3"), is(true));
+        assertThat(wakeups.indexOf("a1") < wakeups.indexOf("b2"), is(true));
+        assertThat(wakeups.indexOf("b2") < wakeups.indexOf("b4"), is(true));
+        assertThat(wakeups.indexOf("c3") < wakeups.indexOf("b4"), is(true));
+    }
+
+    @Test
+    public void testRetryerBackoffInVirtualTime() throws Throwable {
+        val SUT = new VirtualClock();
+        val attempts = new AtomicInteger();
+
+        SUT.register();
+        try {
+            Retryer.of(() -> {
+                if (attempts.incrementAndGet() < 5) {
+                    throw new Exception("meh");
+                }
+            }).clock(SUT).baseDelay(Duration.ofMinutes(1)).exponentialFactor(2).maxDelay(Duration.ofHours(1)).run();
+        } finally {
+            SUT.unregister();
+        }
+
+        assertThat(attempts.get(), is(5));
+        // 1 + 2 + 4 + 8 minutes of backoff
+        assertThat(SUT.now().getEpochSecond(), is(Duration.ofMinutes(15).getSeconds()));
+    }
+}